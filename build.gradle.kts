@@ -3,6 +3,7 @@ plugins {
     id("com.github.johnrengelman.shadow") version "8.1.1"
     id("maven-publish")
     id("de.chojo.publishdata") version "1.4.0"
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 group = "com.github.redreaperlp"
@@ -15,12 +16,39 @@ repositories {
 }
 dependencies {
     implementation("org.json", "json", "20230618")
+    testImplementation(platform("org.junit:junit-bom:5.10.2"))
+    testImplementation("org.junit.jupiter:junit-jupiter")
+    testRuntimeOnly("org.junit.platform:junit-platform-launcher")
 }
 
 tasks {
     shadowJar {
 
     }
+
+    test {
+        useJUnitPlatform()
+    }
+}
+
+val loadtest: SourceSet by sourceSets.creating {
+    compileClasspath += sourceSets.main.get().output + sourceSets.main.get().compileClasspath
+    runtimeClasspath += sourceSets.main.get().output + sourceSets.main.get().runtimeClasspath
+}
+
+tasks.register<JavaExec>("loadTest") {
+    group = "verification"
+    description = "Runs the load generator, options are passed with -PloadTestArgs=\"--clients=1000 --rate=20000\""
+    classpath = loadtest.runtimeClasspath
+    mainClass.set("com.github.redreaperlp.socketapi.loadtest.LoadTest")
+    args = project.findProperty("loadTestArgs")?.toString()?.split(" ")?.filter { it.isNotBlank() } ?: emptyList()
+}
+
+jmh {
+    // ./gradlew jmh -PjmhIncludes=RoundTrip runs only the matching benchmarks
+    project.findProperty("jmhIncludes")?.let { includes.add(it.toString()) }
+    resultFormat.set("JSON")
+    resultsFile.set(layout.buildDirectory.file("results/jmh/results-${project.version}.json"))
 }
 
 publishData {
@@ -0,0 +1,74 @@
+package com.github.redreaperlp.socketapi.benchmark;
+
+import com.github.redreaperlp.socketapi.communication.codec.BinaryCodec;
+import com.github.redreaperlp.socketapi.communication.codec.Codec;
+import com.github.redreaperlp.socketapi.communication.codec.JsonCodec;
+import com.github.redreaperlp.socketapi.communication.compression.DeflateCompressor;
+import com.github.redreaperlp.socketapi.communication.protocol.Frames;
+import com.github.redreaperlp.socketapi.communication.protocol.WireFormat;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The cost of turning a request into a frame and back, like the writing and reading threads of a connection do,
+ * without encryption
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EncodingBenchmark {
+    @Param({"16", "1024", "65536"})
+    public int payloadSize;
+
+    @Param({"json", "binary"})
+    public String codec;
+
+    @Param({"false", "true"})
+    public boolean compression;
+
+    private JSONObject data;
+    private WireFormat format;
+    private ByteBuffer payload;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        data = Loopback.payload(payloadSize);
+        Codec codec = this.codec.equals("binary") ? BinaryCodec.INSTANCE : JsonCodec.INSTANCE;
+        format = new WireFormat(Frames.V2, codec, compression ? DeflateCompressor.INSTANCE : null);
+        payload = ByteBuffer.wrap(codec.encode(serialize()));
+    }
+
+    private JSONObject serialize() {
+        return new JSONObject()
+                .put("type", Loopback.Echo.name)
+                .put("data", data)
+                .put("id", 1L);
+    }
+
+    @Benchmark
+    public ByteBuffer encode() {
+        return Frames.encode(serialize(), format, null, 1024);
+    }
+
+    @Benchmark
+    public JSONObject decode() {
+        return format.getCodec().decode(payload.duplicate());
+    }
+}
@@ -0,0 +1,71 @@
+package com.github.redreaperlp.socketapi.benchmark;
+
+import com.github.redreaperlp.socketapi.communication.crypto.FrameCipher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The cost of encrypting and decrypting a payload, with AES-GCM of {@code Frames.V2} and with the AES and
+ * Base64 of {@code Frames.V1} that {@code NetInstance.encrypt/decrypt} use
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EncryptionBenchmark {
+    @Param({"16", "1024", "65536"})
+    public int payloadSize;
+
+    private FrameCipher cipher;
+    private byte[] plaintext;
+    private byte[] sealed;
+    private String plaintextLegacy;
+    private String encryptedLegacy;
+
+    @Setup(Level.Trial)
+    public void setup() throws NoSuchAlgorithmException {
+        cipher = new FrameCipher(MessageDigest.getInstance("SHA-256").digest("benchmark".getBytes()));
+        plaintextLegacy = Loopback.payload(payloadSize).toString();
+        plaintext = plaintextLegacy.getBytes(StandardCharsets.UTF_8);
+        sealed = cipher.seal(plaintext);
+        encryptedLegacy = cipher.encryptLegacy(plaintextLegacy);
+    }
+
+    @Benchmark
+    public byte[] seal() {
+        return cipher.seal(plaintext);
+    }
+
+    @Benchmark
+    public ByteBuffer open() {
+        return cipher.open(ByteBuffer.wrap(sealed));
+    }
+
+    @Benchmark
+    public String encryptLegacy() {
+        return cipher.encryptLegacy(plaintextLegacy);
+    }
+
+    @Benchmark
+    public String decryptLegacy() {
+        return cipher.decryptLegacy(encryptedLegacy);
+    }
+}
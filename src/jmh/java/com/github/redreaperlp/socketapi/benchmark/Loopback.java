@@ -0,0 +1,136 @@
+package com.github.redreaperlp.socketapi.benchmark;
+
+import com.github.redreaperlp.socketapi.communication.RequestManager;
+import com.github.redreaperlp.socketapi.communication.handler.IPromisingRequestHandler;
+import com.github.redreaperlp.socketapi.communication.handler.IRequestHandler;
+import com.github.redreaperlp.socketapi.communication.request.requests.RequestPing;
+import com.github.redreaperlp.socketapi.communication.request.requests.RequestRegister;
+import com.github.redreaperlp.socketapi.communication.request.requests.RequestStop;
+import com.github.redreaperlp.socketapi.communication.request.special.RequestPromising;
+import com.github.redreaperlp.socketapi.communication.request.special.RequestVoiding;
+import com.github.redreaperlp.socketapi.ns.NetInstance;
+import com.github.redreaperlp.socketapi.ns.client.SocketClient;
+import com.github.redreaperlp.socketapi.ns.server.SocketServer;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * A server with clients connected to it over the loopback interface, used by the benchmarks that measure whole
+ * round trips
+ */
+public class Loopback {
+    private final SocketServer server;
+    private final SocketClient[] clients;
+    private final AtomicInteger next = new AtomicInteger();
+    private final LongAdder events = new LongAdder();
+
+    static {
+        RequestManager.registerRequest(RequestRegister.name, RequestRegister.class);
+        RequestManager.registerRequest(RequestPing.name, RequestPing.class);
+        RequestManager.registerRequest(RequestStop.name, RequestStop.class);
+        RequestManager.registerRequest(Echo.name, Echo.class);
+        RequestManager.registerRequest(Event.name, Event.class);
+    }
+
+    /**
+     * Starts the server and connects the clients
+     *
+     * @param connections The amount of clients
+     * @param setup       Configures the server and every client before they start
+     * @throws IOException if no free port was found
+     */
+    public Loopback(int connections, Consumer<NetInstance> setup) throws IOException {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        server = new SocketServer(port);
+        server.registerPromisingHandler(Echo.class, (IPromisingRequestHandler) (req, data) ->
+                req.setResponse(new JSONObject().put("payload", data.getString("payload")), 200));
+        server.registerHandler(Event.class, (IRequestHandler) (req, data) -> events.increment());
+        setup.accept(server);
+        server.start();
+
+        clients = new SocketClient[connections];
+        for (int i = 0; i < connections; i++) {
+            clients[i] = new SocketClient("localhost", port);
+            setup.accept(clients[i]);
+            connect(clients[i]);
+        }
+    }
+
+    private static void connect(SocketClient client) {
+        // the server binds its socket on its own thread
+        for (int attempt = 0; attempt < 100; attempt++) {
+            if (client.start()) return;
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+        }
+        throw new IllegalStateException("Could not connect to the loopback server");
+    }
+
+    /**
+     * @return The next client, the clients are handed out one after another
+     */
+    public SocketClient nextClient() {
+        return clients[Math.floorMod(next.getAndIncrement(), clients.length)];
+    }
+
+    /**
+     * @return The amount of events the server received
+     */
+    public long getEvents() {
+        return events.sum();
+    }
+
+    public void close() {
+        for (SocketClient client : clients) {
+            client.stop();
+        }
+        server.stop();
+    }
+
+    /**
+     * @param size The size of the payload in characters
+     * @return Data with a payload of the given size
+     */
+    public static JSONObject payload(int size) {
+        return new JSONObject().put("payload", "x".repeat(size));
+    }
+
+    /**
+     * Answered by the server with the payload it received
+     */
+    public static class Echo extends RequestPromising {
+        public static final String name = "bench-echo";
+
+        public Echo(long id) {
+            super(id);
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+    }
+
+    /**
+     * Counted by the server, it is not answered
+     */
+    public static class Event extends RequestVoiding {
+        public static final String name = "bench-event";
+
+        @Override
+        public String getName() {
+            return name;
+        }
+    }
+}
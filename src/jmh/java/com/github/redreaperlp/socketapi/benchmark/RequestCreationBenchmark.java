@@ -0,0 +1,52 @@
+package com.github.redreaperlp.socketapi.benchmark;
+
+import com.github.redreaperlp.socketapi.communication.RequestManager;
+import com.github.redreaperlp.socketapi.communication.request.Request;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The cost of {@code RequestManager.getRequest}, by class and by the name a received request has
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RequestCreationBenchmark {
+    private RequestManager manager;
+
+    @Setup(Level.Trial)
+    public void setup() throws ClassNotFoundException {
+        // registers the requests
+        Class.forName(Loopback.class.getName());
+        manager = new RequestManager(null);
+    }
+
+    @Benchmark
+    public Loopback.Echo promisingByClass() {
+        return manager.getRequest(Loopback.Echo.class);
+    }
+
+    @Benchmark
+    public Loopback.Event voidingByClass() {
+        return manager.getRequest(Loopback.Event.class);
+    }
+
+    @Benchmark
+    public Request promisingByName() {
+        return manager.getRequest(Loopback.Echo.name, 1);
+    }
+}
@@ -0,0 +1,77 @@
+package com.github.redreaperlp.socketapi.benchmark;
+
+import com.github.redreaperlp.socketapi.communication.response.Response;
+import com.github.redreaperlp.socketapi.ns.client.SocketClient;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The latency of {@code RequestPromising.complete()}, from queueing a request until its response arrived,
+ * every benchmark thread uses one of the clients
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class RoundTripBenchmark {
+    @Param({"1", "4"})
+    public int connections;
+
+    @Param({"16", "1024", "65536"})
+    public int payloadSize;
+
+    @Param({"false", "true"})
+    public boolean encryption;
+
+    private Loopback loopback;
+    private JSONObject payload;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        payload = Loopback.payload(payloadSize);
+        loopback = new Loopback(connections, instance -> {
+            if (encryption) instance.useEncryption("benchmark");
+        });
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        loopback.close();
+    }
+
+    @State(Scope.Thread)
+    public static class Client {
+        SocketClient client;
+
+        @Setup(Level.Trial)
+        public void setup(RoundTripBenchmark benchmark) {
+            client = benchmark.loopback.nextClient();
+        }
+    }
+
+    @Benchmark
+    public Response complete(Client client) {
+        Loopback.Echo echo = client.client.getRequest(Loopback.Echo.class);
+        echo.setData(payload);
+        return echo.complete();
+    }
+}
@@ -0,0 +1,81 @@
+package com.github.redreaperlp.socketapi.benchmark;
+
+import com.github.redreaperlp.socketapi.communication.queue.FlowControl;
+import com.github.redreaperlp.socketapi.communication.queue.OverflowPolicy;
+import com.github.redreaperlp.socketapi.ns.client.SocketClient;
+import com.github.redreaperlp.socketapi.ns.server.SocketServer;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The throughput of requests without a response, the flow control of the clients makes {@code queue()} wait
+ * while too much is queued, so the benchmark measures how fast requests are written instead of how fast the
+ * queue grows
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class VoidingThroughputBenchmark {
+    @Param({"1", "4"})
+    public int connections;
+
+    @Param({"16", "1024", "65536"})
+    public int payloadSize;
+
+    @Param({"false", "true"})
+    public boolean eventLoops;
+
+    private Loopback loopback;
+    private JSONObject payload;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        payload = Loopback.payload(payloadSize);
+        loopback = new Loopback(connections, instance -> {
+            instance.setFlowControl(new FlowControl(256, 1024, 4 << 20, 16 << 20, OverflowPolicy.BLOCK));
+            if (eventLoops && instance instanceof SocketServer server) server.useEventLoops(2);
+        });
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        loopback.close();
+    }
+
+    @State(Scope.Thread)
+    public static class Client {
+        SocketClient client;
+
+        @Setup(Level.Trial)
+        public void setup(VoidingThroughputBenchmark benchmark) {
+            client = benchmark.loopback.nextClient();
+        }
+    }
+
+    @Benchmark
+    public void queue(Client client) {
+        Loopback.Event event = client.client.getRequest(Loopback.Event.class);
+        event.setData(payload);
+        event.queue();
+    }
+}
@@ -0,0 +1,82 @@
+package com.github.redreaperlp.socketapi.loadtest;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The options of a load test, given as {@code --name=value} arguments
+ */
+public class LoadConfig {
+    final int clients;
+    final int rate;
+    final double promising;
+    final int payload;
+    final int duration;
+    final int interval;
+    final int workers;
+    final long timeout;
+    final int eventLoops;
+    final boolean virtualThreads;
+    final String host;
+    final int port;
+    final String csv;
+
+    private LoadConfig(Map<String, String> options) {
+        clients = Integer.parseInt(options.getOrDefault("clients", "100"));
+        rate = Integer.parseInt(options.getOrDefault("rate", "1000"));
+        promising = Double.parseDouble(options.getOrDefault("promising", "0.8"));
+        payload = Integer.parseInt(options.getOrDefault("payload", "256"));
+        duration = Integer.parseInt(options.getOrDefault("duration", "60"));
+        interval = Integer.parseInt(options.getOrDefault("interval", "5"));
+        workers = Integer.parseInt(options.getOrDefault("workers", "4"));
+        timeout = Long.parseLong(options.getOrDefault("timeout", "5000"));
+        eventLoops = Integer.parseInt(options.getOrDefault("event-loops", "0"));
+        virtualThreads = Boolean.parseBoolean(options.getOrDefault("virtual-threads", "false"));
+        host = options.get("host");
+        port = Integer.parseInt(options.getOrDefault("port", "0"));
+        csv = options.get("csv");
+        if (clients < 1 || rate < 1 || workers < 1 || interval < 1) {
+            throw new IllegalArgumentException("clients, rate, workers and interval have to be at least 1");
+        }
+        if (promising < 0 || promising > 1) {
+            throw new IllegalArgumentException("promising has to be between 0 and 1");
+        }
+    }
+
+    /**
+     * @param args The arguments, for example {@code --clients=1000 --rate=20000}
+     * @return The options, every option that is not given has its default
+     * @throws IllegalArgumentException if an argument is not an option or a value is out of range
+     */
+    public static LoadConfig parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) throw new IllegalArgumentException("Unknown argument " + arg);
+            int split = arg.indexOf('=');
+            if (split == -1) {
+                options.put(arg.substring(2), "true");
+            } else {
+                options.put(arg.substring(2, split), arg.substring(split + 1));
+            }
+        }
+        return new LoadConfig(options);
+    }
+
+    static String usage() {
+        return """
+                Options:
+                  --clients=100          Amount of clients
+                  --rate=1000            Requests per second of all clients together
+                  --promising=0.8        Share of requests that expect a response, the rest is sent without one
+                  --payload=256          Size of the payload of every request in characters
+                  --duration=60          Length of the test in seconds
+                  --interval=5           Seconds between two reports
+                  --workers=4            Threads sending the requests
+                  --timeout=5000         Timeout of a request in milliseconds
+                  --event-loops=0        Event loop threads of the server, 0 for a thread per connection
+                  --virtual-threads      Runs the server and the clients on virtual threads (Java 21+)
+                  --host=... --port=...  Uses a running server instead of starting one on the loopback interface
+                  --csv=file             Also writes every report as a line into a csv file
+                """;
+    }
+}
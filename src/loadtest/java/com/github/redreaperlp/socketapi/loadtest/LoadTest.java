@@ -0,0 +1,292 @@
+package com.github.redreaperlp.socketapi.loadtest;
+
+import com.github.redreaperlp.socketapi.communication.RequestManager;
+import com.github.redreaperlp.socketapi.communication.handler.IPromisingRequestHandler;
+import com.github.redreaperlp.socketapi.communication.handler.IRequestHandler;
+import com.github.redreaperlp.socketapi.communication.metrics.HistogramSnapshot;
+import com.github.redreaperlp.socketapi.communication.metrics.LatencyHistogram;
+import com.github.redreaperlp.socketapi.communication.request.requests.RequestPing;
+import com.github.redreaperlp.socketapi.communication.request.requests.RequestRegister;
+import com.github.redreaperlp.socketapi.communication.request.requests.RequestStop;
+import com.github.redreaperlp.socketapi.communication.request.special.RequestPromising;
+import com.github.redreaperlp.socketapi.communication.request.special.RequestVoiding;
+import com.github.redreaperlp.socketapi.ns.NetInstance;
+import com.github.redreaperlp.socketapi.ns.client.SocketClient;
+import com.github.redreaperlp.socketapi.ns.server.SocketServer;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.net.ServerSocket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Connects many clients to one server and sends requests at a fixed rate, every interval it reports the latency,
+ * the throughput, the timeouts, the reconnects and the heap and thread usage of the process
+ * <p>
+ * The load is open: requests are sent at the time they are due, no matter if earlier ones were answered, and their
+ * latency is measured from that time, so a stalled server shows up in the latency instead of lowering the load
+ */
+public class LoadTest {
+    private final LoadConfig config;
+    private final List<SocketClient> clients = new ArrayList<>();
+    private final JSONObject payload;
+    private SocketServer server;
+    private volatile boolean running = true;
+    private final AtomicReference<LatencyHistogram> latencies = new AtomicReference<>(new LatencyHistogram());
+    private final LatencyHistogram totalLatencies = new LatencyHistogram();
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder answered = new LongAdder();
+    private final LongAdder voided = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    static {
+        RequestManager.registerRequest(RequestRegister.name, RequestRegister.class);
+        RequestManager.registerRequest(RequestPing.name, RequestPing.class);
+        RequestManager.registerRequest(RequestStop.name, RequestStop.class);
+        RequestManager.registerRequest(Echo.name, Echo.class);
+        RequestManager.registerRequest(Event.name, Event.class);
+    }
+
+    public LoadTest(LoadConfig config) {
+        this.config = config;
+        this.payload = new JSONObject().put("payload", "x".repeat(config.payload));
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadConfig config;
+        try {
+            config = LoadConfig.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(LoadConfig.usage());
+            System.exit(1);
+            return;
+        }
+        new LoadTest(config).run();
+        System.exit(0);
+    }
+
+    /**
+     * Registers the handlers the load test needs, for servers that are started outside of this tool
+     *
+     * @param server The server, before it is started
+     */
+    public static void configure(SocketServer server) {
+        server.registerPromisingHandler(Echo.class, (IPromisingRequestHandler) (req, data) ->
+                req.setResponse(new JSONObject().put("payload", data.getString("payload")), 200));
+        server.registerHandler(Event.class, (IRequestHandler) (req, data) -> {
+        });
+    }
+
+    public void run() throws Exception {
+        String host = config.host == null ? "localhost" : config.host;
+        int port = config.host == null ? startServer() : config.port;
+        connect(host, port);
+
+        List<Thread> workers = new ArrayList<>();
+        for (int i = 0; i < config.workers; i++) {
+            int worker = i;
+            Thread thread = new Thread(() -> send(worker), "LoadTest Worker " + i);
+            thread.start();
+            workers.add(thread);
+        }
+
+        try (PrintWriter csv = config.csv == null ? null : new PrintWriter(Files.newBufferedWriter(Path.of(config.csv)))) {
+            String header = "seconds,requests/s,answered/s,voiding/s,p50 us,p99 us,p999 us,max us,timeouts,failures,reconnects,heap mb,threads";
+            System.out.println(header);
+            if (csv != null) csv.println(header);
+            long start = System.nanoTime();
+            long last = start;
+            long[] previous = new long[3];
+            for (int elapsed = config.interval; elapsed <= config.duration; elapsed += config.interval) {
+                LockSupport.parkNanos(start + TimeUnit.SECONDS.toNanos(elapsed) - System.nanoTime());
+                long now = System.nanoTime();
+                String line = report(elapsed, (now - last) / 1e9, previous);
+                last = now;
+                System.out.println(line);
+                if (csv != null) {
+                    csv.println(line);
+                    csv.flush();
+                }
+            }
+        }
+
+        running = false;
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        // lets the last responses arrive before the summary
+        Thread.sleep(Math.min(config.timeout, 2000));
+        HistogramSnapshot total = totalLatencies.snapshot();
+        System.out.printf("total: requests=%d answered=%d voiding=%d timeouts=%d failures=%d reconnects=%d%n",
+                sent.sum(), answered.sum(), voided.sum(), timeouts.sum(), failures.sum(), reconnects());
+        System.out.printf("latency: p50=%dus p99=%dus p999=%dus max=%dus%n", micros(total.getPercentile(50)),
+                micros(total.getPercentile(99)), micros(total.getPercentile(99.9)), micros(total.getMax()));
+        stop();
+    }
+
+    private int startServer() throws IOException {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        server = new SocketServer(port);
+        configure(server);
+        setup(server);
+        if (config.eventLoops > 0) server.useEventLoops(config.eventLoops);
+        server.start();
+        return port;
+    }
+
+    private void setup(NetInstance instance) {
+        if (config.virtualThreads) instance.useVirtualThreads();
+    }
+
+    /**
+     * Connects all clients, a few at a time
+     */
+    private void connect(String host, int port) throws InterruptedException {
+        ExecutorService connector = Executors.newFixedThreadPool(16);
+        for (int i = 0; i < config.clients; i++) {
+            SocketClient client = new SocketClient(host, port);
+            setup(client);
+            clients.add(client);
+            connector.execute(() -> {
+                // the server binds its socket on its own thread
+                while (!client.start()) {
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(50));
+                }
+            });
+        }
+        connector.shutdown();
+        connector.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        System.out.println(config.clients + " clients connected");
+    }
+
+    /**
+     * Sends the share of one worker of the requests, every request is due at a fixed time
+     *
+     * @param worker The index of the worker
+     */
+    private void send(int worker) {
+        long period = TimeUnit.SECONDS.toNanos(1) * config.workers / config.rate;
+        long due = System.nanoTime() + period * worker / config.workers;
+        int next = worker;
+        while (running) {
+            long wait = due - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+                continue;
+            }
+            SocketClient client = clients.get(next % clients.size());
+            next += config.workers;
+            if (ThreadLocalRandom.current().nextDouble() < config.promising) {
+                sendPromising(client, due);
+            } else {
+                Event event = client.getRequest(Event.class);
+                event.setData(payload);
+                event.queue();
+                voided.increment();
+            }
+            sent.increment();
+            due += period;
+        }
+    }
+
+    private void sendPromising(SocketClient client, long due) {
+        Echo echo = client.getRequest(Echo.class);
+        echo.setData(payload);
+        echo.setTimeout(config.timeout);
+        echo.completeAsync().whenComplete((response, e) -> {
+            if (echo.failed() == 408) {
+                timeouts.increment();
+            } else if (echo.failed() != 200 || response == null || response.getStatus() != 200) {
+                failures.increment();
+            } else {
+                long latency = System.nanoTime() - due;
+                latencies.get().record(latency);
+                totalLatencies.record(latency);
+                answered.increment();
+            }
+        });
+    }
+
+    private String report(int elapsed, double seconds, long[] previous) {
+        HistogramSnapshot interval = latencies.getAndSet(new LatencyHistogram()).snapshot();
+        long[] current = {sent.sum(), answered.sum(), voided.sum()};
+        double[] rates = new double[current.length];
+        for (int i = 0; i < current.length; i++) {
+            rates[i] = (current[i] - previous[i]) / seconds;
+            previous[i] = current[i];
+        }
+        long heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed() >> 20;
+        int threads = ManagementFactory.getThreadMXBean().getThreadCount();
+        return String.format("%d,%.0f,%.0f,%.0f,%d,%d,%d,%d,%d,%d,%d,%d,%d", elapsed, rates[0], rates[1], rates[2],
+                micros(interval.getPercentile(50)), micros(interval.getPercentile(99)),
+                micros(interval.getPercentile(99.9)), micros(interval.getMax()),
+                timeouts.sum(), failures.sum(), reconnects(), heap, threads);
+    }
+
+    private int reconnects() {
+        int reconnects = 0;
+        for (SocketClient client : clients) {
+            reconnects += client.getReconnects();
+        }
+        return reconnects;
+    }
+
+    private static long micros(long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(nanos);
+    }
+
+    private void stop() throws InterruptedException {
+        ExecutorService stopper = Executors.newFixedThreadPool(16);
+        for (SocketClient client : clients) {
+            stopper.execute(client::stop);
+        }
+        stopper.shutdown();
+        stopper.awaitTermination(30, TimeUnit.SECONDS);
+        if (server != null) server.stop();
+    }
+
+    /**
+     * Answered by the server with the payload it received
+     */
+    public static class Echo extends RequestPromising {
+        public static final String name = "load-echo";
+
+        public Echo(long id) {
+            super(id);
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+    }
+
+    /**
+     * Ignored by the server, it is not answered
+     */
+    public static class Event extends RequestVoiding {
+        public static final String name = "load-event";
+
+        @Override
+        public String getName() {
+            return name;
+        }
+    }
+}
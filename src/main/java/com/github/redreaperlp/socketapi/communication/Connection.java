@@ -1,74 +1,237 @@
 package com.github.redreaperlp.socketapi.communication;
 
+import com.github.redreaperlp.socketapi.communication.broadcast.BroadcastFrame;
+import com.github.redreaperlp.socketapi.communication.crypto.FrameCipher;
+import com.github.redreaperlp.socketapi.communication.dispatch.DispatchMode;
+import com.github.redreaperlp.socketapi.communication.dispatch.SerialExecutor;
 import com.github.redreaperlp.socketapi.communication.handler.RequestHandler;
+import com.github.redreaperlp.socketapi.communication.metrics.Metrics;
+import com.github.redreaperlp.socketapi.communication.protocol.FrameDecoder;
+import com.github.redreaperlp.socketapi.communication.protocol.Frames;
+import com.github.redreaperlp.socketapi.communication.protocol.WireFormat;
+import com.github.redreaperlp.socketapi.communication.queue.FlowControl;
+import com.github.redreaperlp.socketapi.communication.queue.LogicalChannel;
+import com.github.redreaperlp.socketapi.communication.queue.OutboundQueue;
+import com.github.redreaperlp.socketapi.communication.queue.OverflowPolicy;
+import com.github.redreaperlp.socketapi.communication.queue.WritabilityListener;
 import com.github.redreaperlp.socketapi.communication.request.Request;
 import com.github.redreaperlp.socketapi.communication.request.requests.RequestPing;
+import com.github.redreaperlp.socketapi.communication.request.requests.RequestRegister;
+import com.github.redreaperlp.socketapi.communication.request.special.RequestBatch;
 import com.github.redreaperlp.socketapi.communication.request.special.RequestPromising;
 import com.github.redreaperlp.socketapi.communication.response.Response;
+import com.github.redreaperlp.socketapi.communication.stream.OutgoingStream;
+import com.github.redreaperlp.socketapi.communication.stream.StreamChunk;
+import com.github.redreaperlp.socketapi.communication.stream.Streams;
+import com.github.redreaperlp.socketapi.communication.timer.Timeout;
+import com.github.redreaperlp.socketapi.communication.transport.NioChannel;
 import com.github.redreaperlp.socketapi.ns.NetInstance;
 import com.github.redreaperlp.socketapi.ns.server.SocketServer;
+import org.json.JSONArray;
 import org.json.JSONObject;
 
 import java.io.*;
 import java.net.Socket;
-import java.util.ArrayList;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
 
 public abstract class Connection {
+    private static final System.Logger LOGGER = System.getLogger(Connection.class.getName());
+    private static final AtomicLong connectionIds = new AtomicLong();
+    private final long connectionId = connectionIds.getAndIncrement();
+    private String identifier;
     private Socket socket;
     private NetInstance netInstance;
-    private BufferedReader reader;
-    private BufferedWriter writer;
+    private InputStream in;
+    private OutputStream out;
+    private final FrameDecoder decoder = new FrameDecoder();
+    private final Supplier<Connection> self = () -> this;
+    private volatile WireFormat readFormat = WireFormat.LEGACY;
+    private volatile WireFormat writeFormat = WireFormat.LEGACY;
+    private volatile Request upgradeAfter;
+    private volatile WireFormat upgradeFormat;
     private Thread incomingThread;
     private Thread outgoingThread;
-    private Thread timeoutThread;
-    private Thread pingThread;
     private final RequestManager requestManager;
     private final RequestHandler requestHandler = new RequestHandler();
-    public final List<RequestPromising> pendingResponses = new ArrayList<>();
-    private final List<Request> requestQueue = new ArrayList<>();
-    private long pingInterval = 100;
+    private final PendingResponses pendingResponses = new PendingResponses();
+    private final OutboundQueue requestQueue = new OutboundQueue();
+    private final Queue<BroadcastFrame> queuedBroadcasts = new ConcurrentLinkedQueue<>();
+    // dropped broadcasts stay in the request queue until the writer skips them, they are not counted as queued
+    private final AtomicInteger droppedBroadcasts = new AtomicInteger();
+    private volatile FlowControl flowControl;
+    private final AtomicLong pendingBytes = new AtomicLong();
+    private volatile boolean writable = true;
+    private final ReentrantLock writabilityLock = new ReentrantLock();
+    private final Condition writableAgain = writabilityLock.newCondition();
+    private final List<WritabilityListener> writabilityListeners = new CopyOnWriteArrayList<>();
+    private volatile int sendWindow = 0;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Queue<RequestPromising> awaitingCredit = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger windowGrant = new AtomicInteger(-1);
+    private volatile boolean writerParked = false;
+    private long pingInterval;
+    private long maxPingInterval;
+    private volatile long lastRead = System.nanoTime();
+    private long keepAliveMark = lastRead;
+    private long keepAliveInterval;
+    private volatile Timeout keepAlive;
+    private volatile boolean ended = false;
+    private long requestTimeout;
+    private NioChannel channel;
+    private final FrameCipher cipher;
+    private final Metrics metrics;
+    private final Streams streams;
 
     public Connection(Socket socket, NetInstance netInstance) {
         this.socket = socket;
         this.netInstance = netInstance;
+        this.metrics = new Metrics(netInstance.metrics(), this::getQueuedRequests, pendingResponses::size);
+        this.cipher = netInstance.usesEncrytion() ? new FrameCipher(netInstance.encryptionKey()) : null;
+        this.streams = new Streams(this, cipher);
+        this.pingInterval = netInstance.pingInterval();
+        this.maxPingInterval = netInstance.maxPingInterval();
+        this.requestTimeout = netInstance.requestTimeout();
+        netInstance.channelWeights().forEach(requestQueue::open);
         registerHandlers();
         requestManager = new RequestManager(netInstance);
         requestManager.setConnection(this);
+        if (socket.getChannel() != null && !socket.getChannel().isBlocking()) {
+            // non-blocking channels are read and written by an event loop, see attach(NioChannel)
+            return;
+        }
         try {
-            reader = new BufferedReader(new InputStreamReader(socket.getInputStream()));
-            writer = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream()));
+            in = socket.getInputStream();
+            out = new BufferedOutputStream(socket.getOutputStream(), 64 * 1024);
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
     }
 
-    public BufferedReader getReader() {
-        return reader;
+    /**
+     * @return The protocol version received frames are read with, see {@link Frames}
+     */
+    public int getReadProtocol() {
+        return readFormat.getProtocol();
+    }
+
+    /**
+     * @return The format received frames are read with
+     */
+    public WireFormat getReadFormat() {
+        return readFormat;
+    }
+
+    public void setReadFormat(WireFormat readFormat) {
+        this.readFormat = readFormat;
+    }
+
+    /**
+     * @return The format queued requests are written with
+     */
+    public WireFormat getWriteFormat() {
+        return writeFormat;
+    }
+
+    public void setWriteFormat(WireFormat writeFormat) {
+        this.writeFormat = writeFormat;
+    }
+
+    /**
+     * Switches the written format as soon as the request was encoded
+     *
+     * @param request The last request that is written with the current format
+     * @param format  The format all following requests are written with
+     */
+    public void upgradeAfter(Request request, WireFormat format) {
+        this.upgradeFormat = format;
+        this.upgradeAfter = request;
+    }
+
+    public NetInstance getNetInstance() {
+        return netInstance;
+    }
+
+    /**
+     * @return The metrics of this connection, they also count into {@link NetInstance#metrics()}
+     */
+    public Metrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * @return The id of this connection, unique for all connections of this process
+     */
+    public long getConnectionId() {
+        return connectionId;
+    }
+
+    /**
+     * @return The identifier the client registered with, see {@link com.github.redreaperlp.socketapi.event.ConnectionHandler}, or null
+     */
+    public String getIdentifier() {
+        return identifier;
+    }
+
+    public void setIdentifier(String identifier) {
+        this.identifier = identifier;
+    }
+
+    /**
+     * Attaches this connection to a channel of an event loop, the event loop will then handle all reads and writes
+     *
+     * @param channel The channel
+     * @apiNote After this is called, {@link #incoming()} and {@link #outgoing()} do nothing
+     */
+    public void attach(NioChannel channel) {
+        this.channel = channel;
     }
 
-    public BufferedWriter getWriter() {
-        return writer;
+    /**
+     * @return The event loop channel or null if this connection uses its own threads
+     */
+    public NioChannel getChannel() {
+        return channel;
     }
 
     public void end(boolean endSocket) {
-        System.out.println(requestQueue.size() + " requests left in queue");
+        LOGGER.log(System.Logger.Level.DEBUG, () -> requestQueue.size() + " requests left in queue");
         try {
-            if (!requestQueue.isEmpty() && endSocket) {
-                for (Request request : requestQueue) {
-                    if (request instanceof RequestPromising promising) {
-                        promising.failed(408);
-                        promising.done();
-                    }
+            if (endSocket) {
+                awaitingCredit.clear();
+                streams.close();
+                for (RequestPromising promising : pendingResponses.removeAll(p -> true)) {
+                    Timeout timeout = promising.getTimeoutHandle();
+                    if (timeout != null) timeout.cancel();
+                    promising.failed(408);
+                    promising.done();
                 }
             }
-            if (pingThread != null && pingThread.isAlive()) pingThread.interrupt();
+            if (endSocket) {
+                ended = true;
+                Timeout keepAlive = this.keepAlive;
+                if (keepAlive != null) keepAlive.cancel();
+                // releases callers waiting for the connection to become writable
+                setWritable(true);
+            }
             if (incomingThread != null && incomingThread.isAlive()) incomingThread.interrupt();
             if (outgoingThread != null && outgoingThread.isAlive()) outgoingThread.interrupt();
-            if (timeoutThread != null && timeoutThread.isAlive()) timeoutThread.interrupt();
+            if (channel != null && endSocket) channel.close();
+            // closing the socket closes its streams, closing the buffered stream would try to flush into the closed socket
             if (!socket.isClosed() && endSocket) socket.close();
-            if (reader != null && !reader.ready() && endSocket) reader.close();
-            if (writer != null && endSocket) writer.close();
             if (endSocket && netInstance instanceof SocketServer server) {
                 server.removeConnection(this);
             }
@@ -85,20 +248,19 @@ public abstract class Connection {
      * starts the incoming thread
      */
     public void incoming() {
-        incomingThread = new Thread(() -> {
+        if (channel != null) return;
+        incomingThread = netInstance.threadFactory().newThread(() -> {
             while (!incomingThread.isInterrupted()) {
                 try {
-                    String line = reader.readLine();
-                    if (line != null) {
-                        if (netInstance.usesEncrytion()) {
-                            line = netInstance.decrypt(line);
-                        }
-                        JSONObject jsonObject = new JSONObject(line);
-                        resolve(jsonObject);
-                    }
+                    if (decoder.readFrom(in) == -1) throw new EOFException();
+                    decoder.decode(self);
                 } catch (IOException e) {
                     connectionError();
-                    System.out.println("Incoming thread interrupted");
+                    LOGGER.log(System.Logger.Level.DEBUG, "Incoming thread interrupted");
+                    return;
+                } catch (RuntimeException e) {
+                    LOGGER.log(System.Logger.Level.WARNING, "Closing the connection after a frame that could not be resolved", e);
+                    connectionError();
                     return;
                 }
             }
@@ -109,114 +271,335 @@ public abstract class Connection {
 
     /**
      * Sends all requests in the queue to the receiver and clears the queue
-     * @apiNote Thread waits until the queue is not empty and continues afterwards
+     * @apiNote Thread waits until the queue is not empty and continues afterwards,
+     * everything that is queued at once is flushed together
      */
     public void outgoing() {
-        outgoingThread = new Thread(() -> {
+        if (channel != null) return;
+        outgoingThread = netInstance.threadFactory().newThread(() -> {
             while (!outgoingThread.isInterrupted()) {
-                while (!requestQueue.isEmpty()) {
-                    Request request = requestQueue.remove(0);
-                    if (request == null) continue;
-                    JSONObject jsonObject = new JSONObject();
-                    if (request instanceof RequestPromising promising) {
-                        if (!promising.isResponding()) {
-                            jsonObject.put("type", request.getName());
-                            jsonObject.put("data", request.getData());
-                        } else {
-                            Response response = promising.getResponse();
-                            response.pack();
-                            jsonObject.put("type", "response");
-                            jsonObject.put("data", response.getData());
-                        }
-                        jsonObject.put("id", promising.getId());
-                    } else {
-                        jsonObject.put("type", request.getName());
-                        jsonObject.put("data", request.getData());
-                    }
-                    try {
-
-                        if (netInstance.usesEncrytion()) {
-                            writer.write(netInstance.encrypt(jsonObject.toString()));
-                        } else {
-                            writer.write(jsonObject.toString());
-                        }
-                        writer.newLine();
-                        writer.flush();
-                    } catch (IOException e) {
-                        connectionError();
-                        System.out.println("Outgoing thread interrupted");
-                        return;
-                    }
-                }
-                synchronized (requestQueue) {
-                    try {
-                        requestQueue.wait();
-                    } catch (InterruptedException e) {
-                        System.out.println("Outgoing thread interrupted");
-                        return;
+                try {
+                    Request request;
+                    while ((request = pollRequest()) != null) {
+                        ByteBuffer frame = encodeFrame(request);
+                        out.write(frame.array(), frame.arrayOffset() + frame.position(), frame.remaining());
                     }
+                    out.flush();
+                } catch (IOException e) {
+                    connectionError();
+                    LOGGER.log(System.Logger.Level.DEBUG, "Outgoing thread interrupted");
+                    return;
+                } catch (RuntimeException e) {
+                    LOGGER.log(System.Logger.Level.WARNING, "Closing the connection after a request that could not be written", e);
+                    connectionError();
+                    return;
                 }
+                // parking instead of a monitor wait keeps virtual threads unpinned, see wakeUp()
+                writerParked = true;
+                if (requestQueue.isEmpty()) LockSupport.park(this);
+                writerParked = false;
             }
+            LOGGER.log(System.Logger.Level.DEBUG, "Outgoing thread interrupted");
         });
         outgoingThread.setName("Outgoing Listener");
         outgoingThread.start();
     }
 
-    public void timeout() {
-        timeoutThread = new Thread(() -> {
-            while (!timeoutThread.isInterrupted()) {
-                while (!pendingResponses.isEmpty()) {
-                    synchronized (pendingResponses) {
-                        List<RequestPromising> toRemove = new ArrayList<>();
-                        for (RequestPromising promising : pendingResponses) {
-                            if (System.currentTimeMillis() - promising.getTimeSent() > getPingInterval() * 3) {
-                                System.out.println("Request " + promising.getName() + " timed out");
-                                promising.failed(408);
-                                promising.done();
-                                toRemove.add(promising);
-                            }
-                        }
-                        pendingResponses.removeAll(toRemove);
-                    }
-                    try {
-                        Thread.sleep(1000);
-                    } catch (InterruptedException e) {
-                        System.out.println("Timeout thread interrupted");
-                        return;
-                    }
-                }
-                synchronized (pendingResponses) {
-                    try {
-                        pendingResponses.wait();
-                    } catch (InterruptedException e) {
-                        System.out.println("Timeout thread interrupted");
-                        return;
-                    }
-                }
+    /**
+     * Packs a request into the json object that is sent to the receiver
+     *
+     * @param request The request to serialize
+     * @return The json object
+     */
+    public JSONObject serialize(Request request) {
+        JSONObject jsonObject = new JSONObject();
+        if (request instanceof RequestPromising promising) {
+            if (!promising.isResponding()) {
+                jsonObject.put("type", request.getName());
+                jsonObject.put("data", request.getData());
+            } else {
+                Response response = promising.getResponse();
+                response.pack();
+                jsonObject.put("type", "response");
+                jsonObject.put("data", response.getData());
+                attachWindowGrant(jsonObject);
             }
-        });
-        timeoutThread.setName("Timeout Listener");
-        timeoutThread.start();
+            jsonObject.put("id", promising.getId());
+        } else {
+            jsonObject.put("type", request.getName());
+            jsonObject.put("data", request.getData());
+            // handlers answer with the response itself
+            if (request instanceof Response) attachWindowGrant(jsonObject);
+        }
+        String channel = request.getChannel();
+        if (channel != null && !channel.equals(LogicalChannel.DEFAULT)) jsonObject.put("channel", channel);
+        return jsonObject;
+    }
+
+    /**
+     * Adds the window set with {@link #grantWindow(int)} to a response, once
+     *
+     * @param jsonObject The serialized response
+     */
+    private void attachWindowGrant(JSONObject jsonObject) {
+        int window = windowGrant.getAndSet(-1);
+        if (window >= 0) jsonObject.put("window", window);
+    }
+
+    /**
+     * Encodes a request into a frame of the current format, the payload is compressed, if negotiated and large
+     * enough, and then encrypted, if enabled
+     *
+     * @param request The request to encode
+     * @return The frame, ready to be written
+     * @apiNote Must only be called by the thread writing to the socket, the order of the frames matters
+     */
+    public ByteBuffer encodeFrame(Request request) {
+        WireFormat format = writeFormat;
+        if (request instanceof BroadcastFrame broadcast) {
+            ByteBuffer frame = broadcast.getBroadcast().frame(format);
+            metrics.sent(frame.remaining());
+            return frame;
+        }
+        if (request instanceof StreamChunk chunk) {
+            ByteBuffer frame = chunk.getFrame();
+            metrics.sent(frame.remaining());
+            chunk.written();
+            return frame;
+        }
+        ByteBuffer frame = Frames.encode(serialize(request), format, cipher, netInstance.compressionThreshold(), metrics);
+        if (request == upgradeAfter) {
+            writeFormat = upgradeFormat;
+            upgradeAfter = null;
+        }
+        metrics.sent(frame.remaining());
+        return frame;
+    }
+
+    /**
+     * Decrypts, if enabled, decompresses, if flagged, decodes and resolves a received frame
+     *
+     * @param flags   The flags of the frame
+     * @param payload The payload of the frame, only valid during this call
+     * @throws IOException if the frame fails to decrypt, for example because it was changed on the way or uses another
+     *                     key, or fails to decompress, the connection has to be closed then
+     */
+    public void receive(int flags, ByteBuffer payload) throws IOException {
+        long start = System.nanoTime();
+        lastRead = start;
+        WireFormat format = readFormat;
+        metrics.received(payload.remaining() + (format.getProtocol() < Frames.V2 ? 1 : Frames.HEADER_SIZE));
+        if (cipher != null) {
+            try {
+                payload = format.getProtocol() < Frames.V2
+                        ? ByteBuffer.wrap(cipher.decryptLegacy(StandardCharsets.UTF_8.decode(payload).toString()).getBytes(StandardCharsets.UTF_8))
+                        : cipher.open(payload);
+            } catch (RuntimeException e) {
+                // nothing else this peer sends can be trusted either
+                LOGGER.log(System.Logger.Level.WARNING, "Closing the connection after a frame that failed to decrypt", e);
+                throw new IOException("Received a frame that failed to decrypt", e);
+            }
+            long decrypted = System.nanoTime();
+            metrics.decrypted(decrypted - start);
+            start = decrypted;
+        }
+        if ((flags & Frames.FLAG_STREAM) != 0) {
+            // decrypted payloads are new buffers, the others belong to the decoder
+            streams.receive(flags, payload, cipher != null);
+            return;
+        }
+        if ((flags & Frames.FLAG_COMPRESSED) != 0) {
+            if (format.getCompressor() == null) {
+                LOGGER.log(System.Logger.Level.WARNING, "Closing the connection after a compressed frame without negotiated compression");
+                throw new IOException("Received a compressed frame without negotiated compression");
+            }
+            try {
+                payload = format.getCompressor().decompress(payload);
+            } catch (RuntimeException e) {
+                LOGGER.log(System.Logger.Level.WARNING, "Closing the connection after a frame that failed to decompress", e);
+                throw new IOException("Received a frame that failed to decompress", e);
+            }
+        }
+        JSONObject object = format.getCodec().decode(payload);
+        metrics.decoded(System.nanoTime() - start);
+        resolve(object);
+    }
+
+    /**
+     * Takes the next request out of the queue
+     *
+     * @return The next request or null if the queue is empty
+     * @apiNote Must only be called by the thread writing to the socket
+     */
+    public Request pollRequest() {
+        Request request;
+        while ((request = requestQueue.poll()) instanceof BroadcastFrame broadcast) {
+            queuedBroadcasts.remove(broadcast);
+            if (broadcast.claim()) break;
+            droppedBroadcasts.decrementAndGet();
+        }
+        if (!writable) updateWritability();
+        return request;
+    }
+
+    /**
+     * Queues a broadcast, the frame is shared with the other receivers and encoded only once per format
+     *
+     * @param broadcast The entry of the broadcast for this connection
+     */
+    public void queueBroadcast(BroadcastFrame broadcast) {
+        queuedBroadcasts.add(broadcast);
+        requestQueue.offer(broadcast);
+        if (writable) updateWritability();
+        wakeUp();
+    }
+
+    /**
+     * Queues a control request or a chunk of a stream on the {@link LogicalChannel#STREAMS} channel, they are not
+     * limited by the flow control because the window of the stream already limits them
+     *
+     * @param request The request or chunk
+     */
+    public void queueStream(Request request) {
+        requestQueue.offer(requestQueue.channel(LogicalChannel.STREAMS), request);
+        if (writable) updateWritability();
+        wakeUp();
+    }
+
+    /**
+     * Sends a stream to the other side, it is split into chunks that are written between the other requests.
+     * The other side reads it in its {@link com.github.redreaperlp.socketapi.communication.stream.StreamHandler}
+     *
+     * @param meta   Data the receiver gets with the stream, for example a file name, or null
+     * @param source The source, for example a {@link java.nio.channels.FileChannel}, it has to be blocking and
+     *               is closed when the stream ended
+     * @return The stream, its future completes when the last chunk was written
+     * @throws IllegalStateException if the connection was not registered yet or the other side uses an old version
+     */
+    public OutgoingStream stream(JSONObject meta, ReadableByteChannel source) {
+        if (writeFormat.getProtocol() < Frames.V2) {
+            throw new IllegalStateException("Streams need protocol version " + Frames.V2);
+        }
+        return streams.send(meta, source);
+    }
+
+    /**
+     * Sends a stream to the other side, see {@link #stream(JSONObject, ReadableByteChannel)}
+     *
+     * @param meta   Data the receiver gets with the stream, or null
+     * @param source The source, it is closed when the stream ended
+     * @return The stream, its future completes when the last chunk was written
+     */
+    public OutgoingStream stream(JSONObject meta, InputStream source) {
+        return stream(meta, Channels.newChannel(source));
+    }
+
+    /**
+     * @return The streams of this connection
+     */
+    public Streams getStreams() {
+        return streams;
+    }
+
+    /**
+     * Drops the oldest broadcast that was not written yet
+     *
+     * @return If a broadcast was dropped
+     */
+    public boolean dropOldestBroadcast() {
+        BroadcastFrame broadcast;
+        while ((broadcast = queuedBroadcasts.poll()) != null) {
+            // the writer may have taken it meanwhile, then the next one is dropped
+            if (broadcast.drop()) {
+                droppedBroadcasts.incrementAndGet();
+                if (!writable) updateWritability();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return The amount of requests waiting to be written, dropped broadcasts are not counted
+     */
+    public int getQueuedRequests() {
+        return requestQueue.size() - droppedBroadcasts.get();
+    }
+    /**
+     * @deprecated Timeouts are handled by the timer of the net instance, see {@link NetInstance#timer()}
+     */
+    @Deprecated
+    public void timeout() {
+    }
+
+    /**
+     * Fails a request whose deadline passed without a response
+     *
+     * @param promising The request
+     */
+    private void expire(RequestPromising promising) {
+        if (!pendingResponses.remove(promising)) return;
+        LOGGER.log(System.Logger.Level.DEBUG, () -> "Request " + promising.getName() + " timed out");
+        metrics.timeout();
+        promising.failed(408);
+        // completed first, so a request that is just taking a credit sees that it is done and gives it back
+        promising.done();
+        releaseCredit(promising);
     }
 
     public void connectionError() {
         netInstance.notifyConnectionClosed(this);
     }
 
+    /**
+     * Starts the keepalive of this connection, it runs on the timer of the net instance
+     * <p>
+     * Every received frame proves that the other side is alive, so a ping is only sent if nothing was received
+     * for the ping interval. While the connection stays idle and the pings are answered, the interval doubles up to
+     * {@link #getMaxPingInterval()}, as soon as something is received again it starts over at {@link #getPingInterval()}
+     *
+     * @apiNote If a ping fails and nothing was received since it was sent, the connection counts as broken
+     */
     public void ping() {
-        pingThread = new Thread(() -> {
-            while (!Thread.currentThread().isInterrupted()) {
-                try {
-                    Thread.sleep(100);
-                } catch (InterruptedException e) {
-                    System.out.println("Ping thread interrupted");
-                    return;
-                }
-                getRequestManager().getRequest(RequestPing.class).complete();
+        keepAliveInterval = pingInterval;
+        scheduleKeepAlive(TimeUnit.MILLISECONDS.toNanos(keepAliveInterval));
+    }
+
+    private void scheduleKeepAlive(long delayNanos) {
+        if (ended) return;
+        keepAlive = netInstance.timer().schedule(this::keepAlive, delayNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private void keepAlive() {
+        if (ended) return;
+        long read = lastRead;
+        if (read != keepAliveMark) {
+            keepAliveMark = read;
+            keepAliveInterval = pingInterval;
+            long idle = System.nanoTime() - read;
+            long interval = TimeUnit.MILLISECONDS.toNanos(keepAliveInterval);
+            if (idle < interval) {
+                scheduleKeepAlive(interval - idle);
+                return;
+            }
+        }
+        long sent = System.nanoTime();
+        RequestPing ping = getRequestManager().getRequest(RequestPing.class);
+        ping.setTimeout(Math.max(maxPingInterval, getRequestTimeout()));
+        ping.setTimeSent(System.currentTimeMillis());
+        ping.pack();
+        // priority requests are not limited by the flow control, so the timer thread never waits here
+        queuePriority(ping);
+        ping.getFuture().whenComplete((response, e) -> {
+            if (ping.failed() == 200) {
+                keepAliveMark = lastRead;
+                keepAliveInterval = Math.min(keepAliveInterval * 2, maxPingInterval);
+            } else if (lastRead - sent < 0) {
+                connectionError();
+                return;
             }
+            scheduleKeepAlive(TimeUnit.MILLISECONDS.toNanos(keepAliveInterval));
         });
-        pingThread.setName("Ping Thread");
-        pingThread.start();
     }
 
     /**
@@ -227,33 +610,113 @@ public abstract class Connection {
             if (jsonObject.getString("type").equals("response")) {
                 JSONObject data = jsonObject.getJSONObject("data");
                 long id = data.getLong("id");
-                RequestPromising toRem = null;
-                synchronized (pendingResponses) {
-                    for (RequestPromising promising : pendingResponses) {
-                        if (promising.getId() == id) {
-                            getRequestHandler().handleRequest(promising, data);
-                            promising.setResponse(data == null ? new JSONObject() : data);
-                            promising.validateResponse();
-                            promising.done();
-                            toRem = promising;
-                        }
-                    }
-                    pendingResponses.remove(toRem);
+                if (jsonObject.has("window")) setSendWindow(jsonObject.getInt("window"));
+                RequestPromising promising = pendingResponses.remove(id);
+                if (promising != null) {
+                    Timeout timeout = promising.getTimeoutHandle();
+                    if (timeout != null) timeout.cancel();
+                    metrics.latency(promising.getName(), System.nanoTime() - promising.getQueuedNanos());
+                    releaseCredit(promising);
+                    getRequestHandler().handleRequest(promising, data);
+                    promising.setResponse(data == null ? new JSONObject() : data);
+                    promising.validateResponse();
+                    promising.done();
+                }
+            } else if (Streams.isControl(jsonObject.getString("type"))) {
+                streams.control(jsonObject.getString("type"), jsonObject.getJSONObject("data"));
+            } else if (jsonObject.getString("type").equals(RequestBatch.name)) {
+                JSONArray requests = jsonObject.getJSONObject("data").getJSONArray("requests");
+                for (int i = 0; i < requests.length(); i++) {
+                    resolve(requests.getJSONObject(i));
                 }
             } else {
                 String type = jsonObject.getString("type");
-                Request s = getRequestManager().getRequest(type, jsonObject.getLong("id"));
-                if (s instanceof RequestPromising promising) {
-                    getRequestHandler().handleRequest(promising, jsonObject.has("data") ? jsonObject.getJSONObject("data") : new JSONObject());
-                    promising.validateRequest();
-                    promising.getResponse().queue();
+                Request s = getRequestManager().getRequest(type, jsonObject.optLong("id", -1));
+                if (s == null) return;
+                // too many channels fall back to the default channel, the response goes back on it
+                LogicalChannel channel = requestQueue.channel(jsonObject.optString("channel", null));
+                s.setChannel(channel.getName());
+                JSONObject data = jsonObject.optJSONObject("data");
+                JSONObject received = data == null ? new JSONObject() : data;
+                if (s instanceof RequestRegister) {
+                    // the registration changes how the following frames are read, so it has to be handled right away
+                    handle(s, received);
+                } else {
+                    netInstance.dispatcher().dispatch(channel, () -> handle(s, received), () -> reject(s));
                 }
             }
         } else {
-            System.out.println("Received invalid request " + jsonObject);
+            LOGGER.log(System.Logger.Level.WARNING, () -> "Received invalid request " + jsonObject);
+        }
+    }
+
+    /**
+     * Calls the handlers of a received request and queues its response, a request whose handler fails is answered
+     * with 500
+     *
+     * @param request The received request
+     * @param data    The data of the request
+     */
+    private void handle(Request request, JSONObject data) {
+        if (request instanceof RequestPromising promising) {
+            try {
+                getRequestHandler().handleRequest(promising, data);
+                promising.validateRequest();
+            } catch (RuntimeException e) {
+                LOGGER.log(System.Logger.Level.ERROR, "Request handler failed", e);
+                promising.setResponse(new JSONObject().put("reason", "The request could not be handled"), 500);
+            }
+            promising.getResponse().queue();
+        } else {
+            // requests without a response, for example broadcasts, only carry their data
+            try {
+                getRequestHandler().handleRequest(request, data);
+            } catch (RuntimeException e) {
+                LOGGER.log(System.Logger.Level.ERROR, "Request handler failed", e);
+            }
+        }
+    }
+
+    /**
+     * Answers a received request with 503 because the dispatcher has no room for it
+     *
+     * @param request The received request
+     */
+    private void reject(Request request) {
+        if (request instanceof RequestPromising promising) {
+            promising.setResponse(new JSONObject().put("reason", "Too many requests waiting to be handled"), 503);
+            promising.getResponse().queue();
         }
     }
 
+    /**
+     * @return The executor keeping the order of the requests of the default channel, see {@link DispatchMode#ORDERED}
+     */
+    public SerialExecutor getSerialExecutor() {
+        return requestQueue.getDefaultChannel().getSerialExecutor();
+    }
+
+    /**
+     * Opens a logical channel or changes the weight of an open one. Requests name their channel with
+     * {@link Request#setChannel(String)}, channels that are not opened get {@link LogicalChannel#DEFAULT_WEIGHT}
+     *
+     * @param name   The name of the channel
+     * @param weight The amount of requests written from the channel before the next channel gets its turn
+     * @return The channel
+     * @throws IllegalStateException if the connection has {@link OutboundQueue#MAX_CHANNELS} channels already
+     */
+    public LogicalChannel openChannel(String name, int weight) {
+        return requestQueue.open(name, weight);
+    }
+
+    /**
+     * @return The open channels of this connection, including {@link LogicalChannel#DEFAULT} and
+     * {@link LogicalChannel#STREAMS}
+     */
+    public LogicalChannel[] getChannels() {
+        return requestQueue.getChannels();
+    }
+
     /**
      * @return The request manager
      */
@@ -267,34 +730,266 @@ public abstract class Connection {
      */
     public void queue(Request request) {
         if (request == null) return;
+        if (!writable && !(request instanceof Response) && !admit(request)) return;
 
-        synchronized (requestQueue) {
-            requestQueue.add(request);
-            requestQueue.notifyAll();
+        if (request instanceof RequestPromising promising) {
+            track(promising);
+            if (sendWindow > 0 && !promising.isResponding()) {
+                awaitingCredit.add(promising);
+                drainAwaitingCredit();
+                return;
+            }
+        } else if (request instanceof RequestBatch batch && sendWindow > 0) {
+            // every request of the batch needs its own credit
+            batch.getRequests().forEach(this::queue);
+            return;
+        } else if (request instanceof RequestBatch batch) {
+            for (Request batched : batch.getRequests()) {
+                if (batched instanceof RequestPromising promising) track(promising);
+            }
         }
 
-        if (request instanceof RequestPromising promising) {
-            synchronized (pendingResponses) {
-                pendingResponses.add(promising);
-                pendingResponses.notifyAll();
+        requestQueue.offer(requestQueue.channel(request.getChannel()), request);
+        if (writable) updateWritability();
+        wakeUp();
+    }
+
+    /**
+     * Moves requests that wait for a credit into the queue as long as there are credits left
+     */
+    private void drainAwaitingCredit() {
+        while (!awaitingCredit.isEmpty() && tryAcquireCredit()) {
+            RequestPromising promising = awaitingCredit.poll();
+            if (promising == null || !promising.claimCredit()) {
+                // another thread took the request
+                inFlight.decrementAndGet();
+                continue;
+            }
+            if (promising.getFuture().isDone()) {
+                // it timed out while waiting, unless its timeout gave the credit back already
+                if (promising.releaseCredit()) inFlight.decrementAndGet();
+                continue;
             }
+            requestQueue.offer(requestQueue.channel(promising.getChannel()), promising);
+            if (writable) updateWritability();
+            wakeUp();
         }
     }
 
+    private boolean tryAcquireCredit() {
+        while (true) {
+            int current = inFlight.get();
+            int window = sendWindow;
+            if (window > 0 && current >= window) return false;
+            if (inFlight.compareAndSet(current, current + 1)) return true;
+        }
+    }
+
+    private void releaseCredit(RequestPromising promising) {
+        if (!promising.releaseCredit()) return;
+        inFlight.decrementAndGet();
+        drainAwaitingCredit();
+    }
+
+    /**
+     * @return The amount of requests the other side accepts without a response at the same time, 0 if unlimited
+     */
+    public int getSendWindow() {
+        return sendWindow;
+    }
+
+    /**
+     * Sets the amount of requests the other side accepts without a response at the same time
+     *
+     * @param sendWindow The window, 0 if unlimited
+     * @apiNote Set during the registration and by the other side with {@link #grantWindow(int)}
+     */
+    public void setSendWindow(int sendWindow) {
+        this.sendWindow = Math.max(sendWindow, 0);
+        drainAwaitingCredit();
+    }
+
+    /**
+     * @return The amount of sent requests that use a credit and wait for their response
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * @return The amount of requests that wait for a credit before they are queued
+     */
+    public int getAwaitingCredit() {
+        return awaitingCredit.size();
+    }
+
+    /**
+     * Changes how many requests the other side may send without a response at the same time,
+     * the new window is sent with the next response
+     *
+     * @param window The window, 0 for unlimited
+     */
+    public void grantWindow(int window) {
+        windowGrant.set(Math.max(window, 0));
+    }
+
     /**
-     * Queues a request with priority, this means it will be sent before all other requests
+     * Applies the {@link OverflowPolicy} to a request queued while the connection is not writable
+     *
+     * @param request The request
+     * @return If the request may be queued
+     */
+    private boolean admit(Request request) {
+        OverflowPolicy policy = getFlowControl().getPolicy();
+        if (policy == OverflowPolicy.DROP) {
+            return request instanceof RequestPromising || request instanceof RequestBatch;
+        }
+        if (policy == OverflowPolicy.BLOCK && (channel == null || !channel.inLoop())) {
+            awaitWritable();
+            return true;
+        }
+        overflow(request);
+        return false;
+    }
+
+    private void overflow(Request request) {
+        if (request instanceof RequestPromising promising) {
+            promising.failed(FlowControl.STATUS_OVERFLOW);
+            promising.done();
+        } else if (request instanceof RequestBatch batch) {
+            batch.getRequests().forEach(this::overflow);
+        }
+    }
+
+    private void awaitWritable() {
+        writabilityLock.lock();
+        try {
+            while (!writable) writableAgain.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            writabilityLock.unlock();
+        }
+    }
+
+    /**
+     * Compares the queued requests and unwritten bytes with the watermarks of the {@link FlowControl}
+     */
+    private void updateWritability() {
+        if (ended) return;
+        FlowControl flowControl = getFlowControl();
+        int messages = getQueuedRequests();
+        long bytes = pendingBytes.get();
+        if (writable) {
+            if (messages >= flowControl.getHighMessages() || bytes >= flowControl.getHighBytes()) setWritable(false);
+        } else if (messages <= flowControl.getLowMessages() && bytes <= flowControl.getLowBytes()) {
+            setWritable(true);
+        }
+    }
+
+    private void setWritable(boolean writable) {
+        writabilityLock.lock();
+        try {
+            if (this.writable == writable) return;
+            this.writable = writable;
+            if (writable) writableAgain.signalAll();
+        } finally {
+            writabilityLock.unlock();
+        }
+        for (WritabilityListener listener : writabilityListeners) {
+            listener.writabilityChanged(this, writable);
+        }
+    }
+
+    /**
+     * Adds encoded bytes that wait to be written or removes written ones
+     *
+     * @param delta The amount of bytes, negative if they were written
+     * @apiNote Called by the event loop, see {@link NioChannel}
+     */
+    public void updatePendingBytes(long delta) {
+        pendingBytes.addAndGet(delta);
+        updateWritability();
+    }
+
+    /**
+     * @return If requests can be queued without reaching a high watermark of the {@link FlowControl}
+     */
+    public boolean isWritable() {
+        return writable;
+    }
+
+    /**
+     * @return The bytes that were encoded but not written to the socket yet
+     */
+    public long getPendingBytes() {
+        return pendingBytes.get();
+    }
+
+    /**
+     * Adds a listener that is called when this connection stops or starts being writable
+     *
+     * @param listener The listener
+     */
+    public void addWritabilityListener(WritabilityListener listener) {
+        writabilityListeners.add(listener);
+    }
+
+    public void removeWritabilityListener(WritabilityListener listener) {
+        writabilityListeners.remove(listener);
+    }
+
+    /**
+     * @return The flow control of this connection, the one of the net instance if none was set
+     */
+    public FlowControl getFlowControl() {
+        FlowControl flowControl = this.flowControl;
+        return flowControl != null ? flowControl : netInstance.flowControl();
+    }
+
+    /**
+     * Sets the flow control of this connection
+     *
+     * @param flowControl The flow control or null to use the one of the net instance
+     */
+    public void setFlowControl(FlowControl flowControl) {
+        this.flowControl = flowControl;
+    }
+
+    /**
+     * Queues a request with priority, this means it will be sent before the requests of all channels
+     *
      * @param request The request to queue
      */
     public void queuePriority(Request request) {
         if (request instanceof RequestPromising promising) {
-            synchronized (pendingResponses) {
-                pendingResponses.notifyAll();
-                pendingResponses.add(promising);
-            }
+            track(promising);
         }
-        synchronized (requestQueue) {
-            requestQueue.add(0, request);
-            requestQueue.notifyAll();
+        requestQueue.offerPriority(request);
+        wakeUp();
+    }
+
+    /**
+     * Adds a request to the pending responses and schedules its timeout
+     *
+     * @param promising The request
+     */
+    private void track(RequestPromising promising) {
+        long timeout = promising.getTimeout() > 0 ? promising.getTimeout() : getRequestTimeout();
+        promising.setDeadline(promising.getTimeSent() + timeout);
+        promising.setQueuedNanos(System.nanoTime());
+        pendingResponses.put(promising);
+        promising.setTimeoutHandle(netInstance.timer().schedule(() -> expire(promising), timeout, TimeUnit.MILLISECONDS));
+    }
+
+    /**
+     * Wakes up the threads that wait for queued requests
+     */
+    private void wakeUp() {
+        if (channel != null) {
+            channel.requestFlush();
+        } else if (writerParked && outgoingThread != null) {
+            LockSupport.unpark(outgoingThread);
         }
     }
 
@@ -310,6 +1005,9 @@ public abstract class Connection {
     public void notifier(Connection con) {
     }
 
+    /**
+     * @return The time in milliseconds without received frames after which the keepalive sends a ping
+     */
     public long getPingInterval() {
         return pingInterval;
     }
@@ -318,6 +1016,42 @@ public abstract class Connection {
         this.pingInterval = pingInterval;
     }
 
+    /**
+     * @return The time in milliseconds the keepalive waits at most between two pings on an idle connection
+     */
+    public long getMaxPingInterval() {
+        return maxPingInterval;
+    }
+
+    public void setMaxPingInterval(long maxPingInterval) {
+        this.maxPingInterval = maxPingInterval;
+    }
+
+    /**
+     * @return The requests that wait for their response
+     */
+    public PendingResponses getPendingResponses() {
+        return pendingResponses;
+    }
+
+    /**
+     * @return The time in milliseconds after which a request without a response fails,
+     * if not set this is three times the ping interval
+     */
+    public long getRequestTimeout() {
+        return requestTimeout > 0 ? requestTimeout : getPingInterval() * 3;
+    }
+
+    /**
+     * Sets the time after which a request without a response fails
+     *
+     * @param requestTimeout The timeout in milliseconds, 0 to use three times the ping interval
+     * @apiNote Can be overridden per request with {@link RequestPromising#setTimeout(long)}
+     */
+    public void setRequestTimeout(long requestTimeout) {
+        this.requestTimeout = requestTimeout;
+    }
+
     public RequestHandler getRequestHandler() {
         return requestHandler;
     }
@@ -0,0 +1,213 @@
+package com.github.redreaperlp.socketapi.communication;
+
+import com.github.redreaperlp.socketapi.communication.request.special.RequestPromising;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+/**
+ * The requests of a connection that wait for their response, looked up by their id
+ * <p>
+ * The table is split into segments with their own lock, each segment is an open addressing table with primitive
+ * long keys, so looking up, adding and removing a request never scans the other requests and threads only wait
+ * for each other if their ids land in the same segment
+ */
+public class PendingResponses {
+    private static final int SEGMENTS = 16;
+
+    private final Segment[] segments = new Segment[SEGMENTS];
+    private final AtomicInteger size = new AtomicInteger();
+
+    public PendingResponses() {
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment();
+        }
+    }
+
+    /**
+     * Adds a request, a request with the same id is replaced
+     *
+     * @param promising The request
+     */
+    public void put(RequestPromising promising) {
+        long hash = hash(promising.getId());
+        if (segment(hash).put(hash, promising.getId(), promising) == null) size.incrementAndGet();
+    }
+
+    /**
+     * @param id The request id
+     * @return The request or null if there is no request waiting with this id
+     */
+    public RequestPromising get(long id) {
+        long hash = hash(id);
+        return segment(hash).get(hash, id);
+    }
+
+    /**
+     * Removes the request with the id
+     *
+     * @param id The request id
+     * @return The removed request or null if there was no request waiting with this id
+     */
+    public RequestPromising remove(long id) {
+        long hash = hash(id);
+        RequestPromising removed = segment(hash).remove(hash, id, null);
+        if (removed != null) size.decrementAndGet();
+        return removed;
+    }
+
+    /**
+     * Removes the request, but only if it is still the one stored for its id
+     *
+     * @param promising The request
+     * @return true if it was removed
+     */
+    public boolean remove(RequestPromising promising) {
+        long hash = hash(promising.getId());
+        if (segment(hash).remove(hash, promising.getId(), promising) == null) return false;
+        size.decrementAndGet();
+        return true;
+    }
+
+    /**
+     * Removes all requests matching the filter
+     *
+     * @param filter The filter, called while the segment is locked, so it has to be fast
+     * @return The removed requests
+     */
+    public List<RequestPromising> removeAll(Predicate<RequestPromising> filter) {
+        List<RequestPromising> removed = new ArrayList<>();
+        for (Segment segment : segments) {
+            segment.removeAll(filter, removed);
+        }
+        size.addAndGet(-removed.size());
+        return removed;
+    }
+
+    public int size() {
+        return size.get();
+    }
+
+    public boolean isEmpty() {
+        return size.get() == 0;
+    }
+
+    private Segment segment(long hash) {
+        return segments[(int) (hash >>> 60) & (SEGMENTS - 1)];
+    }
+
+    private static long hash(long id) {
+        // murmur3 finalizer, ids are sequential and would otherwise cluster
+        id ^= id >>> 33;
+        id *= 0xff51afd7ed558ccdL;
+        id ^= id >>> 33;
+        id *= 0xc4ceb9fe1a85ec53L;
+        id ^= id >>> 33;
+        return id;
+    }
+
+    private static class Segment {
+        private long[] keys = new long[16];
+        private RequestPromising[] values = new RequestPromising[16];
+        private int count;
+
+        synchronized RequestPromising put(long hash, long id, RequestPromising value) {
+            if ((count + 1) * 4 > values.length * 3) resize();
+            int mask = values.length - 1;
+            int i = (int) hash & mask;
+            while (values[i] != null) {
+                if (keys[i] == id) {
+                    RequestPromising old = values[i];
+                    values[i] = value;
+                    return old;
+                }
+                i = (i + 1) & mask;
+            }
+            keys[i] = id;
+            values[i] = value;
+            count++;
+            return null;
+        }
+
+        synchronized RequestPromising get(long hash, long id) {
+            int mask = values.length - 1;
+            int i = (int) hash & mask;
+            while (values[i] != null) {
+                if (keys[i] == id) return values[i];
+                i = (i + 1) & mask;
+            }
+            return null;
+        }
+
+        /**
+         * @param expected The request that has to be stored, null to remove any request with the id
+         */
+        synchronized RequestPromising remove(long hash, long id, RequestPromising expected) {
+            int mask = values.length - 1;
+            int i = (int) hash & mask;
+            while (values[i] != null) {
+                if (keys[i] == id) {
+                    RequestPromising old = values[i];
+                    if (expected != null && old != expected) return null;
+                    delete(i);
+                    return old;
+                }
+                i = (i + 1) & mask;
+            }
+            return null;
+        }
+
+        synchronized void removeAll(Predicate<RequestPromising> filter, List<RequestPromising> removed) {
+            int i = 0;
+            while (i < values.length) {
+                // delete() can shift a following entry into this slot, so the slot is checked again
+                if (values[i] != null && filter.test(values[i])) {
+                    removed.add(values[i]);
+                    delete(i);
+                } else {
+                    i++;
+                }
+            }
+        }
+
+        /**
+         * Removes the entry and shifts the following entries back, so no tombstones are needed
+         */
+        private void delete(int slot) {
+            int mask = values.length - 1;
+            values[slot] = null;
+            count--;
+            int i = (slot + 1) & mask;
+            while (values[i] != null) {
+                int home = (int) hash(keys[i]) & mask;
+                // move the entry if the freed slot lies between its home slot and its current slot
+                if (((i - home) & mask) >= ((i - slot) & mask)) {
+                    keys[slot] = keys[i];
+                    values[slot] = values[i];
+                    values[i] = null;
+                    slot = i;
+                }
+                i = (i + 1) & mask;
+            }
+        }
+
+        private void resize() {
+            long[] oldKeys = keys;
+            RequestPromising[] oldValues = values;
+            keys = new long[oldKeys.length * 2];
+            values = new RequestPromising[oldValues.length * 2];
+            int mask = values.length - 1;
+            for (int j = 0; j < oldValues.length; j++) {
+                if (oldValues[j] == null) continue;
+                int i = (int) hash(oldKeys[j]) & mask;
+                while (values[i] != null) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = oldKeys[j];
+                values[i] = oldValues[j];
+            }
+        }
+    }
+}
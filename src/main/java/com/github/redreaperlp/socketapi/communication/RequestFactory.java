@@ -0,0 +1,85 @@
+package com.github.redreaperlp.socketapi.communication;
+
+import com.github.redreaperlp.socketapi.communication.request.Request;
+import com.github.redreaperlp.socketapi.communication.request.special.RequestPromising;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.util.function.LongFunction;
+import java.util.function.Supplier;
+
+/**
+ * Creates instances of one request class without reflection
+ *
+ * @param <T> The request type
+ */
+@FunctionalInterface
+public interface RequestFactory<T extends Request> {
+
+    /**
+     * Creates a new request instance
+     *
+     * @param id The id of the request, ignored if the request is not a {@link RequestPromising}
+     * @return The request instance, without a manager
+     */
+    T create(long id);
+
+    /**
+     * Builds the factory for a request class, the constructor is looked up once and bound to a lambda
+     *
+     * @param clazz The request class
+     * @param <T>   The request type
+     * @return The factory
+     * @apiNote Subclasses of {@link RequestPromising} need a constructor taking the id as long, all other requests a constructor without parameters
+     */
+    @SuppressWarnings("unchecked")
+    static <T extends Request> RequestFactory<T> of(Class<T> clazz) {
+        boolean promising = RequestPromising.class.equals(clazz.getSuperclass());
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(clazz, MethodHandles.lookup());
+            if (promising) {
+                MethodHandle constructor = lookup.findConstructor(clazz, MethodType.methodType(void.class, long.class));
+                CallSite site = LambdaMetafactory.metafactory(lookup, "apply",
+                        MethodType.methodType(LongFunction.class),
+                        MethodType.methodType(Object.class, long.class),
+                        constructor, MethodType.methodType(clazz, long.class));
+                LongFunction<T> function = (LongFunction<T>) site.getTarget().invokeExact();
+                return function::apply;
+            }
+            MethodHandle constructor = lookup.findConstructor(clazz, MethodType.methodType(void.class));
+            CallSite site = LambdaMetafactory.metafactory(lookup, "get",
+                    MethodType.methodType(Supplier.class),
+                    MethodType.methodType(Object.class),
+                    constructor, MethodType.methodType(clazz));
+            Supplier<T> supplier = (Supplier<T>) site.getTarget().invokeExact();
+            return id -> supplier.get();
+        } catch (Throwable e) {
+            return reflective(clazz, promising);
+        }
+    }
+
+    /**
+     * Fallback if the constructor cannot be bound to a lambda, for example if the class comes from another class loader
+     */
+    private static <T extends Request> RequestFactory<T> reflective(Class<T> clazz, boolean promising) {
+        Constructor<T> constructor;
+        try {
+            constructor = promising ? clazz.getDeclaredConstructor(long.class) : clazz.getDeclaredConstructor();
+            constructor.setAccessible(true);
+        } catch (NoSuchMethodException e) {
+            throw new RuntimeException(e);
+        }
+        return id -> {
+            try {
+                return promising ? constructor.newInstance(id) : constructor.newInstance();
+            } catch (InvocationTargetException | InstantiationException | IllegalAccessException e) {
+                throw new RuntimeException(e);
+            }
+        };
+    }
+}
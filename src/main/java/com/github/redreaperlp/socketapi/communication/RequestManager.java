@@ -2,17 +2,19 @@ package com.github.redreaperlp.socketapi.communication;
 
 import com.github.redreaperlp.socketapi.ns.NetInstance;
 import com.github.redreaperlp.socketapi.communication.request.Request;
-import com.github.redreaperlp.socketapi.communication.request.special.RequestPromising;
+import com.github.redreaperlp.socketapi.communication.request.special.RequestBatch;
 
-import java.lang.reflect.InvocationTargetException;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class RequestManager {
     private Connection connection;
     private NetInstance netInstance;
-    private long idCounter = 0;
+    private final AtomicLong idCounter = new AtomicLong();
     private static final Map<String, Class<? extends Request>> requests = new HashMap<>();
+    private static final Map<Class<?>, RequestFactory<?>> factories = new ConcurrentHashMap<>();
 
     /**
      * Registers a request
@@ -24,6 +26,23 @@ public class RequestManager {
     public static void registerRequest(String name, Class<? extends Request> request) {
         if (requests.containsKey(name)) return;
         requests.put(name, request);
+        getFactory(request);
+    }
+
+    /**
+     * Gets the cached factory of a request class, creates it if the class was not used before
+     *
+     * @param clazz The request class
+     * @param <T>   The request type
+     * @return The factory
+     */
+    @SuppressWarnings("unchecked")
+    public static <T extends Request> RequestFactory<T> getFactory(Class<T> clazz) {
+        RequestFactory<?> factory = factories.get(clazz);
+        if (factory == null) {
+            factory = factories.computeIfAbsent(clazz, c -> RequestFactory.of(clazz));
+        }
+        return (RequestFactory<T>) factory;
     }
 
     public RequestManager(NetInstance netInstance) {
@@ -43,7 +62,7 @@ public class RequestManager {
      * @apiNote When this method is called, the id is incremented by 1
      */
     public <T extends Request> T getRequest(Class<T> clazz) {
-        return getRequest(clazz, idCounter++);
+        return getRequest(clazz, idCounter.getAndIncrement());
     }
 
     /**
@@ -55,20 +74,18 @@ public class RequestManager {
      * @apiNote This works too, if the class is not registered, this will not increment the id
      */
     public <T extends Request> T getRequest(Class<T> clazz, long id) {
-        try {
-            if (clazz.getSuperclass().equals(RequestPromising.class)) {
-                RequestPromising req = (RequestPromising) clazz.getDeclaredConstructor(long.class).newInstance(id);
-                req.setManager(this);
-                return (T) req;
-            }
-
-            T req = clazz.getDeclaredConstructor().newInstance();
-            req.setManager(this);
-            return req;
-        } catch (InvocationTargetException | NoSuchMethodException | InstantiationException |
-                 IllegalAccessException e) {
-            throw new RuntimeException(e);
-        }
+        T req = getFactory(clazz).create(id);
+        req.setManager(this);
+        return req;
+    }
+
+    /**
+     * Creates a batch, the requests added to it are sent in one frame
+     *
+     * @return The batch
+     */
+    public RequestBatch batch() {
+        return getRequest(RequestBatch.class, -1);
     }
 
     public <T extends Request> T getRequest(String name) {
@@ -0,0 +1,19 @@
+package com.github.redreaperlp.socketapi.communication.broadcast;
+
+/**
+ * What a broadcast does with a connection that has too many requests waiting to be written
+ */
+public enum Backpressure {
+    /**
+     * The connection does not get the broadcast
+     */
+    SKIP,
+    /**
+     * The oldest broadcast that was not written yet is dropped to make room, if there is none the connection is skipped
+     */
+    DROP_OLDEST,
+    /**
+     * The connection is closed
+     */
+    DISCONNECT
+}
@@ -0,0 +1,60 @@
+package com.github.redreaperlp.socketapi.communication.broadcast;
+
+import com.github.redreaperlp.socketapi.communication.crypto.FrameCipher;
+import com.github.redreaperlp.socketapi.communication.metrics.Metrics;
+import com.github.redreaperlp.socketapi.communication.protocol.Frames;
+import com.github.redreaperlp.socketapi.communication.protocol.WireFormat;
+import org.json.JSONObject;
+
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * One request sent to many connections, it is serialized once and encoded once per {@link WireFormat}
+ * the receiving connections use, the frames are shared by all of them
+ */
+public class Broadcast {
+    private final String name;
+    private final JSONObject object;
+    private final FrameCipher cipher;
+    private final int compressionThreshold;
+    private final Metrics metrics;
+    private final Map<WireFormat, ByteBuffer> frames = new ConcurrentHashMap<>();
+
+    /**
+     * @param name                 The name of the request
+     * @param object               The serialized request
+     * @param cipher               The cipher the frames are encrypted with or null without encryption
+     * @param compressionThreshold The size in bytes a payload needs to have to be compressed
+     * @param metrics              The metrics the time spent encoding is recorded in or null
+     */
+    public Broadcast(String name, JSONObject object, FrameCipher cipher, int compressionThreshold, Metrics metrics) {
+        this.name = name;
+        this.object = object;
+        this.cipher = cipher;
+        this.compressionThreshold = compressionThreshold;
+        this.metrics = metrics;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return The serialized request, it must not be changed
+     */
+    public JSONObject getObject() {
+        return object;
+    }
+
+    /**
+     * Gets the frame for a format, it is encoded by the first connection that needs it
+     *
+     * @param format The format of the connection
+     * @return A view of the shared frame with its own position, ready to be written
+     */
+    public ByteBuffer frame(WireFormat format) {
+        return frames.computeIfAbsent(format, f -> Frames.encode(object, f, cipher, compressionThreshold, metrics)).duplicate();
+    }
+}
@@ -0,0 +1,58 @@
+package com.github.redreaperlp.socketapi.communication.broadcast;
+
+import com.github.redreaperlp.socketapi.communication.request.special.RequestVoiding;
+import org.json.JSONObject;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The entry of a {@link Broadcast} in the queue of one connection
+ */
+public class BroadcastFrame extends RequestVoiding {
+    private static final int QUEUED = 0;
+    private static final int CLAIMED = 1;
+    private static final int DROPPED = 2;
+
+    private final Broadcast broadcast;
+    private final AtomicInteger state = new AtomicInteger(QUEUED);
+
+    public BroadcastFrame(Broadcast broadcast) {
+        this.broadcast = broadcast;
+    }
+
+    public Broadcast getBroadcast() {
+        return broadcast;
+    }
+
+    @Override
+    public String getName() {
+        return broadcast.getName();
+    }
+
+    @Override
+    public JSONObject getData() {
+        return broadcast.getObject().optJSONObject("data");
+    }
+
+    /**
+     * Marks the frame as dropped, it is skipped instead of written
+     *
+     * @return If the frame was dropped, false if the writer claimed it already
+     */
+    public boolean drop() {
+        return state.compareAndSet(QUEUED, DROPPED);
+    }
+
+    /**
+     * Claims the frame for the writer, it can not be dropped afterwards
+     *
+     * @return If the frame is written, false if it was dropped
+     */
+    public boolean claim() {
+        return state.compareAndSet(QUEUED, CLAIMED);
+    }
+
+    public boolean isDropped() {
+        return state.get() == DROPPED;
+    }
+}
@@ -0,0 +1,240 @@
+package com.github.redreaperlp.socketapi.communication.codec;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * A compact tagged binary format, every value starts with a one byte tag:
+ * <ul>
+ *     <li>null, false and true are just their tag</li>
+ *     <li>int and long are zigzag varints, double is 8 bytes</li>
+ *     <li>strings and big numbers are a varint length followed by UTF-8 bytes</li>
+ *     <li>objects and arrays are a varint count followed by their entries</li>
+ * </ul>
+ * Numbers do not have to be formatted or parsed and strings do not have to be escaped, which makes it
+ * a lot cheaper than json text
+ *
+ * @apiNote Only usable with protocol version 2 or newer, the bytes can contain line breaks
+ */
+public class BinaryCodec implements Codec {
+    public static final String NAME = "binary";
+    public static final BinaryCodec INSTANCE = new BinaryCodec();
+
+    private static final byte NULL = 0;
+    private static final byte FALSE = 1;
+    private static final byte TRUE = 2;
+    private static final byte INT = 3;
+    private static final byte LONG = 4;
+    private static final byte DOUBLE = 5;
+    private static final byte STRING = 6;
+    private static final byte OBJECT = 7;
+    private static final byte ARRAY = 8;
+    private static final byte BIG_INTEGER = 9;
+    private static final byte BIG_DECIMAL = 10;
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public byte[] encode(JSONObject object) {
+        Output out = new Output();
+        writeObject(out, object);
+        return out.toByteArray();
+    }
+
+    @Override
+    public JSONObject decode(ByteBuffer bytes) {
+        if (bytes.get() != OBJECT) throw new IllegalArgumentException("Payload is not an object");
+        return readObject(bytes);
+    }
+
+    private void writeObject(Output out, JSONObject object) {
+        out.write(OBJECT);
+        out.writeVarInt(object.length());
+        for (String key : object.keySet()) {
+            out.writeString(key);
+            writeValue(out, object.opt(key));
+        }
+    }
+
+    private void writeValue(Output out, Object value) {
+        if (value == null || value == JSONObject.NULL) {
+            out.write(NULL);
+        } else if (value instanceof Boolean b) {
+            out.write(b ? TRUE : FALSE);
+        } else if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            out.write(INT);
+            out.writeVarLong(((Number) value).intValue());
+        } else if (value instanceof Long l) {
+            out.write(LONG);
+            out.writeVarLong(l);
+        } else if (value instanceof Double || value instanceof Float) {
+            out.write(DOUBLE);
+            out.writeLong(Double.doubleToRawLongBits(((Number) value).doubleValue()));
+        } else if (value instanceof String s) {
+            out.write(STRING);
+            out.writeString(s);
+        } else if (value instanceof JSONObject o) {
+            writeObject(out, o);
+        } else if (value instanceof JSONArray array) {
+            out.write(ARRAY);
+            out.writeVarInt(array.length());
+            for (int i = 0; i < array.length(); i++) {
+                writeValue(out, array.opt(i));
+            }
+        } else if (value instanceof BigInteger big) {
+            out.write(BIG_INTEGER);
+            out.writeString(big.toString());
+        } else if (value instanceof BigDecimal big) {
+            out.write(BIG_DECIMAL);
+            out.writeString(big.toString());
+        } else {
+            // maps, collections, enums and beans are converted the same way json text would convert them
+            Object wrapped = JSONObject.wrap(value);
+            if (wrapped instanceof JSONObject || wrapped instanceof JSONArray) {
+                writeValue(out, wrapped);
+            } else {
+                out.write(STRING);
+                out.writeString(String.valueOf(value));
+            }
+        }
+    }
+
+    private JSONObject readObject(ByteBuffer in) {
+        int count = readVarInt(in);
+        JSONObject object = new JSONObject();
+        for (int i = 0; i < count; i++) {
+            String key = readString(in);
+            object.put(key, readValue(in));
+        }
+        return object;
+    }
+
+    private Object readValue(ByteBuffer in) {
+        byte tag = in.get();
+        switch (tag) {
+            case NULL:
+                return JSONObject.NULL;
+            case FALSE:
+                return false;
+            case TRUE:
+                return true;
+            case INT:
+                return (int) readVarLong(in);
+            case LONG:
+                return readVarLong(in);
+            case DOUBLE:
+                return Double.longBitsToDouble(in.getLong());
+            case STRING:
+                return readString(in);
+            case OBJECT:
+                return readObject(in);
+            case ARRAY:
+                int count = readVarInt(in);
+                JSONArray array = new JSONArray();
+                for (int i = 0; i < count; i++) {
+                    array.put(readValue(in));
+                }
+                return array;
+            case BIG_INTEGER:
+                return new BigInteger(readString(in));
+            case BIG_DECIMAL:
+                return new BigDecimal(readString(in));
+            default:
+                throw new IllegalArgumentException("Unknown tag " + tag);
+        }
+    }
+
+    private String readString(ByteBuffer in) {
+        int length = readVarInt(in);
+        String s;
+        if (in.hasArray()) {
+            s = new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8);
+        } else {
+            byte[] bytes = new byte[length];
+            in.get(in.position(), bytes);
+            s = new String(bytes, StandardCharsets.UTF_8);
+        }
+        in.position(in.position() + length);
+        return s;
+    }
+
+    private int readVarInt(ByteBuffer in) {
+        long value = readVarLong(in);
+        if (value < 0 || value > Integer.MAX_VALUE) throw new IllegalArgumentException("Invalid length " + value);
+        return (int) value;
+    }
+
+    private long readVarLong(ByteBuffer in) {
+        long raw = 0;
+        int shift = 0;
+        byte b;
+        do {
+            if (shift > 63) throw new IllegalArgumentException("Varint too long");
+            b = in.get();
+            raw |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return (raw >>> 1) ^ -(raw & 1);
+    }
+
+    /**
+     * A growing byte array, cheaper than a stream because nothing is synchronized
+     */
+    private static class Output {
+        private byte[] buffer = new byte[256];
+        private int size;
+
+        void write(byte b) {
+            ensure(1);
+            buffer[size++] = b;
+        }
+
+        void writeVarInt(int value) {
+            writeVarLong(value);
+        }
+
+        void writeVarLong(long value) {
+            long raw = (value << 1) ^ (value >> 63);
+            ensure(10);
+            while ((raw & ~0x7FL) != 0) {
+                buffer[size++] = (byte) ((raw & 0x7F) | 0x80);
+                raw >>>= 7;
+            }
+            buffer[size++] = (byte) raw;
+        }
+
+        void writeLong(long value) {
+            ensure(8);
+            for (int i = 7; i >= 0; i--) {
+                buffer[size++] = (byte) (value >>> (i * 8));
+            }
+        }
+
+        void writeString(String s) {
+            byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            writeVarInt(bytes.length);
+            ensure(bytes.length);
+            System.arraycopy(bytes, 0, buffer, size, bytes.length);
+            size += bytes.length;
+        }
+
+        private void ensure(int extra) {
+            if (size + extra > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + extra));
+            }
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buffer, size);
+        }
+    }
+}
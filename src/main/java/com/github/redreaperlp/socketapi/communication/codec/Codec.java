@@ -0,0 +1,33 @@
+package com.github.redreaperlp.socketapi.communication.codec;
+
+import org.json.JSONObject;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Turns the json objects of requests into bytes and back
+ *
+ * @apiNote Implementations have to be thread safe, one instance is used by all connections of a {@link com.github.redreaperlp.socketapi.ns.NetInstance}
+ */
+public interface Codec {
+    /**
+     * @return The name both sides agree on during the registration, it has to be unique
+     */
+    String getName();
+
+    /**
+     * Encodes a json object
+     *
+     * @param object The object to encode
+     * @return The encoded bytes
+     */
+    byte[] encode(JSONObject object);
+
+    /**
+     * Decodes a json object
+     *
+     * @param bytes The bytes between position and limit, only valid during this call
+     * @return The decoded object
+     */
+    JSONObject decode(ByteBuffer bytes);
+}
@@ -0,0 +1,29 @@
+package com.github.redreaperlp.socketapi.communication.codec;
+
+import org.json.JSONObject;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Json text, this is what every connection starts with and what older versions understand
+ */
+public class JsonCodec implements Codec {
+    public static final String NAME = "json";
+    public static final JsonCodec INSTANCE = new JsonCodec();
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public byte[] encode(JSONObject object) {
+        return object.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public JSONObject decode(ByteBuffer bytes) {
+        return new JSONObject(StandardCharsets.UTF_8.decode(bytes).toString());
+    }
+}
@@ -0,0 +1,31 @@
+package com.github.redreaperlp.socketapi.communication.compression;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Compresses the payload of frames, only used if both sides set a compressor with the same name
+ *
+ * @apiNote Implementations have to be thread safe, one instance is used by all connections of a {@link com.github.redreaperlp.socketapi.ns.NetInstance}
+ */
+public interface Compressor {
+    /**
+     * @return The name both sides agree on during the registration, it has to be unique
+     */
+    String getName();
+
+    /**
+     * Compresses a payload
+     *
+     * @param payload The encoded request
+     * @return The compressed bytes
+     */
+    byte[] compress(byte[] payload);
+
+    /**
+     * Restores a payload that was compressed with {@link #compress(byte[])}
+     *
+     * @param compressed The bytes between position and limit, only valid during this call
+     * @return The encoded request
+     */
+    ByteBuffer decompress(ByteBuffer compressed);
+}
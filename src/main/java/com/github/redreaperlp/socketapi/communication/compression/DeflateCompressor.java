@@ -0,0 +1,72 @@
+package com.github.redreaperlp.socketapi.communication.compression;
+
+import com.github.redreaperlp.socketapi.communication.protocol.Frames;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Compresses with the Deflate implementation of the JDK, the compressed bytes are {@code [int size][deflate data]}
+ *
+ * @apiNote The deflater and inflater are created once per thread and reset for every payload
+ */
+public class DeflateCompressor implements Compressor {
+    public static final String NAME = "deflate";
+    public static final DeflateCompressor INSTANCE = new DeflateCompressor(Deflater.BEST_SPEED);
+
+    private final ThreadLocal<Deflater> deflater;
+    private final ThreadLocal<Inflater> inflater = ThreadLocal.withInitial(() -> new Inflater(true));
+
+    /**
+     * @param level The level of the {@link Deflater}, from 1 (fastest) to 9 (smallest)
+     */
+    public DeflateCompressor(int level) {
+        this.deflater = ThreadLocal.withInitial(() -> new Deflater(level, true));
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public byte[] compress(byte[] payload) {
+        Deflater deflater = this.deflater.get();
+        deflater.reset();
+        deflater.setInput(payload);
+        deflater.finish();
+        byte[] out = new byte[4 + payload.length / 2 + 64];
+        ByteBuffer.wrap(out).putInt(payload.length);
+        int size = 4;
+        while (!deflater.finished()) {
+            if (size == out.length) out = Arrays.copyOf(out, out.length * 2);
+            size += deflater.deflate(out, size, out.length - size);
+        }
+        return Arrays.copyOf(out, size);
+    }
+
+    @Override
+    public ByteBuffer decompress(ByteBuffer compressed) {
+        int size = compressed.getInt();
+        if (size < 0 || size > Frames.MAX_FRAME_SIZE) {
+            throw new RuntimeException("Invalid decompressed size " + size);
+        }
+        Inflater inflater = this.inflater.get();
+        inflater.reset();
+        inflater.setInput(compressed);
+        ByteBuffer out = ByteBuffer.allocate(size);
+        try {
+            while (out.hasRemaining() && !inflater.finished()) {
+                if (inflater.inflate(out) == 0 && inflater.needsInput()) {
+                    throw new RuntimeException("Compressed frame is truncated");
+                }
+            }
+        } catch (DataFormatException e) {
+            throw new RuntimeException(e);
+        }
+        return out.flip();
+    }
+}
@@ -0,0 +1,134 @@
+package com.github.redreaperlp.socketapi.communication.crypto;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ * Encrypts the frames of one connection
+ * <p>
+ * Frames of {@link com.github.redreaperlp.socketapi.communication.protocol.Frames#V2} are encrypted with AES-GCM,
+ * every frame is {@code [12 byte nonce][ciphertext][16 byte tag]}. The nonce is a random prefix of the connection
+ * followed by a counter, so it is never used twice with the same key.
+ * Frames of {@link com.github.redreaperlp.socketapi.communication.protocol.Frames#V1} keep the old AES and Base64
+ * encoding, so old peers keep working
+ *
+ * @apiNote The ciphers are created once per thread and reused for every frame
+ */
+public class FrameCipher {
+    public static final int NONCE_SIZE = 12;
+    public static final int TAG_BITS = 128;
+
+    private final SecretKeySpec key;
+    private final SecureRandom random = new SecureRandom();
+    private final ThreadLocal<Cipher> gcm = ThreadLocal.withInitial(() -> cipher("AES/GCM/NoPadding"));
+    private final ThreadLocal<Cipher> legacy = ThreadLocal.withInitial(() -> cipher("AES"));
+    private long prefix;
+    private int counter;
+
+    /**
+     * @param key The key of the {@link com.github.redreaperlp.socketapi.ns.NetInstance}, 16, 24 or 32 bytes
+     */
+    public FrameCipher(byte[] key) {
+        this.key = new SecretKeySpec(key, "AES");
+        this.prefix = random.nextLong();
+    }
+
+    /**
+     * Encrypts and authenticates a payload
+     *
+     * @param plaintext The payload
+     * @return The nonce, the ciphertext and the tag
+     */
+    public byte[] seal(byte[] plaintext) {
+        byte[] nonce = nextNonce();
+        try {
+            Cipher cipher = gcm.get();
+            cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(TAG_BITS, nonce));
+            byte[] sealed = new byte[NONCE_SIZE + cipher.getOutputSize(plaintext.length)];
+            System.arraycopy(nonce, 0, sealed, 0, NONCE_SIZE);
+            cipher.doFinal(plaintext, 0, plaintext.length, sealed, NONCE_SIZE);
+            return sealed;
+        } catch (GeneralSecurityException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Checks and decrypts a payload that was encrypted with {@link #seal(byte[])}
+     *
+     * @param sealed The bytes between position and limit, they are consumed
+     * @return The payload
+     * @throws RuntimeException if the frame was changed on the way or uses another key
+     */
+    public ByteBuffer open(ByteBuffer sealed) {
+        if (sealed.remaining() < NONCE_SIZE + TAG_BITS / 8) {
+            throw new RuntimeException("Encrypted frame is too short");
+        }
+        byte[] nonce = new byte[NONCE_SIZE];
+        sealed.get(nonce);
+        try {
+            Cipher cipher = gcm.get();
+            cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(TAG_BITS, nonce));
+            ByteBuffer plaintext = ByteBuffer.allocate(cipher.getOutputSize(sealed.remaining()));
+            cipher.doFinal(sealed, plaintext);
+            return plaintext.flip();
+        } catch (GeneralSecurityException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Encrypts a line for {@link com.github.redreaperlp.socketapi.communication.protocol.Frames#V1}
+     *
+     * @param plaintext The line
+     * @return The encrypted line, Base64 encoded
+     * @apiNote Same output as {@link com.github.redreaperlp.socketapi.ns.NetInstance#encrypt(String)}
+     */
+    public String encryptLegacy(String plaintext) {
+        try {
+            Cipher cipher = legacy.get();
+            cipher.init(Cipher.ENCRYPT_MODE, key);
+            return Base64.getEncoder().encodeToString(cipher.doFinal(plaintext.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Decrypts a line that was encrypted with {@link #encryptLegacy(String)}
+     *
+     * @param ciphertext The encrypted line
+     * @return The line
+     */
+    public String decryptLegacy(String ciphertext) {
+        try {
+            Cipher cipher = legacy.get();
+            cipher.init(Cipher.DECRYPT_MODE, key);
+            return new String(cipher.doFinal(Base64.getDecoder().decode(ciphertext)), StandardCharsets.UTF_8);
+        } catch (GeneralSecurityException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private synchronized byte[] nextNonce() {
+        if (++counter == 0) {
+            // all counters of this prefix were used, continue with a new one
+            prefix = random.nextLong();
+        }
+        return ByteBuffer.allocate(NONCE_SIZE).putLong(prefix).putInt(counter).array();
+    }
+
+    private static Cipher cipher(String transformation) {
+        try {
+            return Cipher.getInstance(transformation);
+        } catch (GeneralSecurityException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
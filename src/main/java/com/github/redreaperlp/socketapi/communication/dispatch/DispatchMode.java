@@ -0,0 +1,20 @@
+package com.github.redreaperlp.socketapi.communication.dispatch;
+
+/**
+ * Where the handlers of received requests run
+ */
+public enum DispatchMode {
+    /**
+     * On the thread reading the connection, a slow handler delays every following frame of the connection
+     */
+    INLINE,
+    /**
+     * On a shared pool, requests of the same connection can be handled in parallel and in any order
+     */
+    POOLED,
+    /**
+     * On a shared pool, but the requests of one channel of a connection are handled one after another in the order
+     * they arrived, see {@link com.github.redreaperlp.socketapi.communication.queue.LogicalChannel}
+     */
+    ORDERED
+}
@@ -0,0 +1,103 @@
+package com.github.redreaperlp.socketapi.communication.dispatch;
+
+import com.github.redreaperlp.socketapi.communication.queue.LogicalChannel;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the handlers of received requests, so the thread reading a connection does not have to wait for them
+ *
+ * @apiNote Responses and the registration are always handled on the reading thread
+ */
+public class Dispatcher {
+    private static final System.Logger LOGGER = System.getLogger(Dispatcher.class.getName());
+    /**
+     * Runs every handler on the reading thread, like before dispatchers existed
+     */
+    public static final Dispatcher INLINE = new Dispatcher(DispatchMode.INLINE, 0, 0, RejectionPolicy.CALLER_RUNS, null);
+
+    private final DispatchMode mode;
+    private final int maxQueued;
+    private final RejectionPolicy policy;
+    private final ExecutorService pool;
+
+    /**
+     * @param mode          Where the handlers run
+     * @param threads       The amount of pool threads, ignored for {@link DispatchMode#INLINE}
+     * @param maxQueued     The amount of requests that may wait, in total for {@link DispatchMode#POOLED},
+     *                      per channel of a connection for {@link DispatchMode#ORDERED}
+     * @param policy        What happens with requests if too many are waiting
+     * @param threadFactory The factory creating the pool threads
+     */
+    public Dispatcher(DispatchMode mode, int threads, int maxQueued, RejectionPolicy policy, ThreadFactory threadFactory) {
+        this.mode = mode;
+        this.maxQueued = maxQueued;
+        this.policy = policy;
+        if (mode == DispatchMode.POOLED) {
+            pool = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(maxQueued), threadFactory);
+        } else if (mode == DispatchMode.ORDERED) {
+            // bounded per channel by the serial executors, the pool queue holds at most one task per channel
+            pool = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                    new LinkedBlockingQueue<>(), threadFactory);
+        } else {
+            pool = null;
+        }
+    }
+
+    /**
+     * Runs the handling of a received request
+     *
+     * @param channel The channel of the connection the request was received on, its requests are handled in
+     *                order with {@link DispatchMode#ORDERED}
+     * @param task    Calls the handlers and queues the response
+     * @param reject  Answers the request without calling the handlers, used by {@link RejectionPolicy#REJECT}
+     */
+    public void dispatch(LogicalChannel channel, Runnable task, Runnable reject) {
+        if (mode == DispatchMode.INLINE) {
+            task.run();
+            return;
+        }
+        Runnable guarded = () -> {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                LOGGER.log(System.Logger.Level.ERROR, "Request handler failed", e);
+            }
+        };
+        boolean accepted;
+        try {
+            if (mode == DispatchMode.POOLED) {
+                pool.execute(guarded);
+                accepted = true;
+            } else {
+                accepted = channel.getSerialExecutor().execute(guarded, pool, maxQueued);
+            }
+        } catch (RejectedExecutionException e) {
+            accepted = false;
+        }
+        if (accepted) return;
+        if (policy == RejectionPolicy.CALLER_RUNS) {
+            task.run();
+        } else if (policy == RejectionPolicy.REJECT) {
+            reject.run();
+        }
+    }
+
+    public DispatchMode getMode() {
+        return mode;
+    }
+
+    /**
+     * Stops the pool after the waiting requests were handled
+     */
+    public void shutdown() {
+        if (pool != null) pool.shutdown();
+    }
+}
@@ -0,0 +1,19 @@
+package com.github.redreaperlp.socketapi.communication.dispatch;
+
+/**
+ * What happens with a received request if the queue of the {@link Dispatcher} is full
+ */
+public enum RejectionPolicy {
+    /**
+     * The request is handled on the reading thread, which slows down reading until the queue has room again
+     */
+    CALLER_RUNS,
+    /**
+     * The request is answered with status 503 without calling the handlers, requests without a response are dropped
+     */
+    REJECT,
+    /**
+     * The request is dropped, the sender runs into its timeout
+     */
+    DROP
+}
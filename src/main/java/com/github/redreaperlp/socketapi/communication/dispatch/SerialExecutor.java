@@ -0,0 +1,77 @@
+package com.github.redreaperlp.socketapi.communication.dispatch;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the tasks of one connection one after another on a shared pool, at most one pool thread works on them at a time
+ */
+public class SerialExecutor {
+    private static final int MAX_TASKS_PER_RUN = 64;
+
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    /**
+     * Queues a task
+     *
+     * @param task      The task
+     * @param pool      The pool running the tasks
+     * @param maxQueued The amount of tasks that may wait at most
+     * @return If the task was queued, false if too many tasks are waiting
+     * @throws RejectedExecutionException if the pool was shut down, the task is not queued then
+     */
+    public boolean execute(Runnable task, Executor pool, int maxQueued) {
+        if (size.incrementAndGet() > maxQueued) {
+            size.decrementAndGet();
+            return false;
+        }
+        tasks.add(task);
+        try {
+            schedule(pool);
+        } catch (RejectedExecutionException e) {
+            // the caller falls back to its rejection policy, so the task must not stay queued and run twice,
+            // unless a run that was scheduled meanwhile took it already
+            if (!tasks.remove(task)) return true;
+            size.decrementAndGet();
+            throw e;
+        }
+        return true;
+    }
+
+    /**
+     * @return The amount of waiting tasks
+     */
+    public int size() {
+        return size.get();
+    }
+
+    private void schedule(Executor pool) {
+        if (!running.compareAndSet(false, true)) return;
+        try {
+            pool.execute(() -> run(pool));
+        } catch (RejectedExecutionException e) {
+            running.set(false);
+            throw e;
+        }
+    }
+
+    private void run(Executor pool) {
+        try {
+            Runnable task;
+            // gives the pool thread back after a while, so busy connections do not starve the others
+            for (int i = 0; i < MAX_TASKS_PER_RUN && (task = tasks.poll()) != null; i++) {
+                size.decrementAndGet();
+                task.run();
+            }
+        } finally {
+            running.set(false);
+        }
+        if (!tasks.isEmpty()) schedule(pool);
+    }
+}
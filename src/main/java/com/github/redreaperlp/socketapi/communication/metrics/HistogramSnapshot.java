@@ -0,0 +1,79 @@
+package com.github.redreaperlp.socketapi.communication.metrics;
+
+/**
+ * The counts of a {@link LatencyHistogram} at one point in time, all values are in nanoseconds
+ */
+public class HistogramSnapshot {
+    private final long[] counts;
+    private final long count;
+    private final long max;
+
+    HistogramSnapshot(long[] counts, long max) {
+        this.counts = counts;
+        long count = 0;
+        for (long c : counts) {
+            count += c;
+        }
+        this.count = count;
+        this.max = max;
+    }
+
+    /**
+     * @return The amount of recorded values
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return The smallest recorded value, 0 if nothing was recorded
+     */
+    public long getMin() {
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) return LatencyHistogram.lowerBound(i);
+        }
+        return 0;
+    }
+
+    /**
+     * @return The largest recorded value, 0 if nothing was recorded
+     */
+    public long getMax() {
+        return max;
+    }
+
+    /**
+     * @return The average of the recorded values, 0 if nothing was recorded
+     */
+    public double getMean() {
+        if (count == 0) return 0;
+        double sum = 0;
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) continue;
+            long lower = LatencyHistogram.lowerBound(i);
+            long upper = Math.min(LatencyHistogram.upperBound(i), max);
+            sum += counts[i] * ((lower + upper) / 2.0);
+        }
+        return sum / count;
+    }
+
+    /**
+     * @param percentile The percentile, for example 99.9
+     * @return The value that the given percentage of the recorded values is at or below, 0 if nothing was recorded
+     */
+    public long getPercentile(double percentile) {
+        if (count == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(count * Math.min(percentile, 100) / 100));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) return Math.min(LatencyHistogram.upperBound(i), max);
+        }
+        return max;
+    }
+
+    @Override
+    public String toString() {
+        return "count=" + count + " p50=" + getPercentile(50) + "ns p99=" + getPercentile(99) + "ns max=" + max + "ns";
+    }
+}
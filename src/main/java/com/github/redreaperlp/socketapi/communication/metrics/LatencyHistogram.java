@@ -0,0 +1,72 @@
+package com.github.redreaperlp.socketapi.communication.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counts latencies in buckets whose size grows with the value, every power of two is split into
+ * {@value #SUB_BUCKETS} buckets, so every recorded value is kept with a precision of about 6%
+ *
+ * @apiNote Recording is lock free and can be done by many threads at once, values above about 18 minutes are
+ * counted as 18 minutes
+ */
+public class LatencyHistogram {
+    private static final int SUB_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    private static final int MAX_EXPONENT = 40;
+    private static final long MAX_VALUE = (1L << (MAX_EXPONENT + 1)) - 1;
+    private static final int BUCKETS = index(MAX_VALUE) + 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Records a latency
+     *
+     * @param nanos The latency in nanoseconds
+     */
+    public void record(long nanos) {
+        long value = Math.min(Math.max(nanos, 0), MAX_VALUE);
+        counts.incrementAndGet(index(value));
+        long current;
+        while (value > (current = max.get()) && !max.compareAndSet(current, value)) {
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * @return A copy of the current counts
+     */
+    public HistogramSnapshot snapshot() {
+        long[] copy = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            copy[i] = counts.get(i);
+        }
+        return new HistogramSnapshot(copy, max.get());
+    }
+
+    static int index(long value) {
+        if (value < SUB_BUCKETS) return (int) value;
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BITS;
+        return (shift + 1) * SUB_BUCKETS + (int) ((value >>> shift) & (SUB_BUCKETS - 1));
+    }
+
+    /**
+     * @param index The index of a bucket
+     * @return The smallest value counted in the bucket
+     */
+    static long lowerBound(int index) {
+        if (index < SUB_BUCKETS) return index;
+        int shift = index / SUB_BUCKETS - 1;
+        return ((long) (SUB_BUCKETS + index % SUB_BUCKETS)) << shift;
+    }
+
+    /**
+     * @param index The index of a bucket
+     * @return The largest value counted in the bucket
+     */
+    static long upperBound(int index) {
+        return lowerBound(index + 1) - 1;
+    }
+}
@@ -0,0 +1,284 @@
+package com.github.redreaperlp.socketapi.communication.metrics;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * Counts the traffic of a net instance or of one of its connections
+ * <p>
+ * The metrics of a connection also count into the metrics of its net instance. Latencies are only kept by the
+ * metrics of the net instance, one histogram for every request type, so connections stay cheap
+ *
+ * @apiNote Recording never locks, {@link #snapshot()} can be called from any thread
+ */
+public class Metrics implements MetricsMXBean {
+    private static final long RATE_INTERVAL = TimeUnit.SECONDS.toNanos(1);
+
+    private final Metrics parent;
+    private final IntSupplier queuedRequests;
+    private final IntSupplier pendingResponses;
+    private final LongAdder messagesIn = new LongAdder();
+    private final LongAdder messagesOut = new LongAdder();
+    private final LongAdder bytesIn = new LongAdder();
+    private final LongAdder bytesOut = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder encodeNanos = new LongAdder();
+    private final LongAdder decodeNanos = new LongAdder();
+    private final LongAdder encryptNanos = new LongAdder();
+    private final LongAdder decryptNanos = new LongAdder();
+    private final Map<String, LatencyHistogram> latencies = new ConcurrentHashMap<>();
+    private long previousTime = System.nanoTime();
+    private long[] previous = new long[4];
+    private long currentTime = previousTime;
+    private long[] current = previous;
+    private ObjectName objectName;
+
+    /**
+     * @param parent           The metrics this counts into too, or null
+     * @param queuedRequests   The amount of requests waiting to be written
+     * @param pendingResponses The amount of requests waiting for their response
+     */
+    public Metrics(Metrics parent, IntSupplier queuedRequests, IntSupplier pendingResponses) {
+        this.parent = parent;
+        this.queuedRequests = queuedRequests;
+        this.pendingResponses = pendingResponses;
+    }
+
+    /**
+     * Records a received frame
+     *
+     * @param bytes The size of the frame
+     */
+    public void received(int bytes) {
+        messagesIn.increment();
+        bytesIn.add(bytes);
+        if (parent != null) parent.received(bytes);
+    }
+
+    /**
+     * Records a written frame
+     *
+     * @param bytes The size of the frame
+     */
+    public void sent(int bytes) {
+        messagesOut.increment();
+        bytesOut.add(bytes);
+        if (parent != null) parent.sent(bytes);
+    }
+
+    /**
+     * Records the time between queueing a request and receiving its response
+     *
+     * @param name  The name of the request
+     * @param nanos The latency in nanoseconds
+     */
+    public void latency(String name, long nanos) {
+        if (parent != null) {
+            parent.latency(name, nanos);
+            return;
+        }
+        latencies.computeIfAbsent(name, n -> new LatencyHistogram()).record(nanos);
+    }
+
+    /**
+     * Records a request that failed because its response did not arrive in time
+     */
+    public void timeout() {
+        timeouts.increment();
+        if (parent != null) parent.timeout();
+    }
+
+    public void encoded(long nanos) {
+        encodeNanos.add(nanos);
+        if (parent != null) parent.encoded(nanos);
+    }
+
+    public void decoded(long nanos) {
+        decodeNanos.add(nanos);
+        if (parent != null) parent.decoded(nanos);
+    }
+
+    public void encrypted(long nanos) {
+        encryptNanos.add(nanos);
+        if (parent != null) parent.encrypted(nanos);
+    }
+
+    public void decrypted(long nanos) {
+        decryptNanos.add(nanos);
+        if (parent != null) parent.decrypted(nanos);
+    }
+
+    /**
+     * @return The current values
+     */
+    public MetricsSnapshot snapshot() {
+        long[] totals = totals();
+        Map<String, HistogramSnapshot> snapshots = new TreeMap<>();
+        latencies.forEach((name, histogram) -> snapshots.put(name, histogram.snapshot()));
+        return new MetricsSnapshot(totals, rates(totals), getQueuedRequests(), getPendingResponses(),
+                timeouts.sum(), encodeNanos.sum(), decodeNanos.sum(), encryptNanos.sum(), decryptNanos.sum(),
+                Collections.unmodifiableMap(snapshots));
+    }
+
+    private long[] totals() {
+        return new long[]{messagesIn.sum(), messagesOut.sum(), bytesIn.sum(), bytesOut.sum()};
+    }
+
+    /**
+     * Calculates the rates since a sample that is at least one second old
+     *
+     * @param totals The current totals
+     * @return The rates per second
+     */
+    private synchronized double[] rates(long[] totals) {
+        long now = System.nanoTime();
+        if (now - currentTime >= RATE_INTERVAL) {
+            previous = current;
+            previousTime = currentTime;
+            current = totals;
+            currentTime = now;
+        }
+        double seconds = Math.max(now - previousTime, 1) / 1e9;
+        double[] rates = new double[totals.length];
+        for (int i = 0; i < totals.length; i++) {
+            rates[i] = (totals[i] - previous[i]) / seconds;
+        }
+        return rates;
+    }
+
+    /**
+     * Exports these metrics through JMX
+     *
+     * @param name The name shown in JMX, for example the name of the application
+     * @return The name the metrics are registered with
+     */
+    public synchronized ObjectName register(String name) {
+        unregister();
+        try {
+            objectName = new ObjectName("com.github.redreaperlp.socketapi:type=Metrics,name=" + ObjectName.quote(name));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+            return objectName;
+        } catch (JMException e) {
+            objectName = null;
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Removes these metrics from JMX, does nothing if they are not registered
+     */
+    public synchronized void unregister() {
+        if (objectName == null) return;
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+        } catch (JMException ignored) {
+        }
+        objectName = null;
+    }
+
+    @Override
+    public long getMessagesIn() {
+        return messagesIn.sum();
+    }
+
+    @Override
+    public long getMessagesOut() {
+        return messagesOut.sum();
+    }
+
+    @Override
+    public long getBytesIn() {
+        return bytesIn.sum();
+    }
+
+    @Override
+    public long getBytesOut() {
+        return bytesOut.sum();
+    }
+
+    @Override
+    public double getMessagesInPerSecond() {
+        return rates(totals())[0];
+    }
+
+    @Override
+    public double getMessagesOutPerSecond() {
+        return rates(totals())[1];
+    }
+
+    @Override
+    public double getBytesInPerSecond() {
+        return rates(totals())[2];
+    }
+
+    @Override
+    public double getBytesOutPerSecond() {
+        return rates(totals())[3];
+    }
+
+    @Override
+    public int getQueuedRequests() {
+        return queuedRequests.getAsInt();
+    }
+
+    @Override
+    public int getPendingResponses() {
+        return pendingResponses.getAsInt();
+    }
+
+    @Override
+    public long getTimeouts() {
+        return timeouts.sum();
+    }
+
+    @Override
+    public long getEncodeNanos() {
+        return encodeNanos.sum();
+    }
+
+    @Override
+    public long getDecodeNanos() {
+        return decodeNanos.sum();
+    }
+
+    @Override
+    public long getEncryptNanos() {
+        return encryptNanos.sum();
+    }
+
+    @Override
+    public long getDecryptNanos() {
+        return decryptNanos.sum();
+    }
+
+    @Override
+    public Map<String, Long> getLatencyMedianMicros() {
+        return latencyMicros(histogram -> histogram.getPercentile(50));
+    }
+
+    @Override
+    public Map<String, Long> getLatency99thPercentileMicros() {
+        return latencyMicros(histogram -> histogram.getPercentile(99));
+    }
+
+    @Override
+    public Map<String, Long> getLatencyMaxMicros() {
+        return latencyMicros(HistogramSnapshot::getMax);
+    }
+
+    private Map<String, Long> latencyMicros(ToLongFunction<HistogramSnapshot> value) {
+        Map<String, Long> micros = new TreeMap<>();
+        latencies.forEach((name, histogram) ->
+                micros.put(name, TimeUnit.NANOSECONDS.toMicros(value.applyAsLong(histogram.snapshot()))));
+        return micros;
+    }
+}
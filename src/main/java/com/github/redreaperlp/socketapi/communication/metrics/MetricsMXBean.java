@@ -0,0 +1,53 @@
+package com.github.redreaperlp.socketapi.communication.metrics;
+
+import java.util.Map;
+
+/**
+ * The attributes of {@link Metrics} exported through JMX, see {@link Metrics#register(String)}
+ */
+public interface MetricsMXBean {
+    long getMessagesIn();
+
+    long getMessagesOut();
+
+    long getBytesIn();
+
+    long getBytesOut();
+
+    double getMessagesInPerSecond();
+
+    double getMessagesOutPerSecond();
+
+    double getBytesInPerSecond();
+
+    double getBytesOutPerSecond();
+
+    int getQueuedRequests();
+
+    int getPendingResponses();
+
+    long getTimeouts();
+
+    long getEncodeNanos();
+
+    long getDecodeNanos();
+
+    long getEncryptNanos();
+
+    long getDecryptNanos();
+
+    /**
+     * @return The median latency of every request type in microseconds
+     */
+    Map<String, Long> getLatencyMedianMicros();
+
+    /**
+     * @return The 99th percentile of the latency of every request type in microseconds
+     */
+    Map<String, Long> getLatency99thPercentileMicros();
+
+    /**
+     * @return The highest latency of every request type in microseconds
+     */
+    Map<String, Long> getLatencyMaxMicros();
+}
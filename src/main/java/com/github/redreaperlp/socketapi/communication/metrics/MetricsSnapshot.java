@@ -0,0 +1,145 @@
+package com.github.redreaperlp.socketapi.communication.metrics;
+
+import java.util.Map;
+
+/**
+ * The values of {@link Metrics} at one point in time
+ * <p>
+ * Rates are measured over at least the last second, or since the metrics were created if they are younger,
+ * durations are in nanoseconds
+ */
+public class MetricsSnapshot {
+    private final long messagesIn;
+    private final long messagesOut;
+    private final long bytesIn;
+    private final long bytesOut;
+    private final double[] rates;
+    private final int queuedRequests;
+    private final int pendingResponses;
+    private final long timeouts;
+    private final long encodeNanos;
+    private final long decodeNanos;
+    private final long encryptNanos;
+    private final long decryptNanos;
+    private final Map<String, HistogramSnapshot> latencies;
+
+    MetricsSnapshot(long[] totals, double[] rates, int queuedRequests, int pendingResponses, long timeouts,
+                    long encodeNanos, long decodeNanos, long encryptNanos, long decryptNanos,
+                    Map<String, HistogramSnapshot> latencies) {
+        this.messagesIn = totals[0];
+        this.messagesOut = totals[1];
+        this.bytesIn = totals[2];
+        this.bytesOut = totals[3];
+        this.rates = rates;
+        this.queuedRequests = queuedRequests;
+        this.pendingResponses = pendingResponses;
+        this.timeouts = timeouts;
+        this.encodeNanos = encodeNanos;
+        this.decodeNanos = decodeNanos;
+        this.encryptNanos = encryptNanos;
+        this.decryptNanos = decryptNanos;
+        this.latencies = latencies;
+    }
+
+    /**
+     * @return The amount of received frames
+     */
+    public long getMessagesIn() {
+        return messagesIn;
+    }
+
+    /**
+     * @return The amount of written frames
+     */
+    public long getMessagesOut() {
+        return messagesOut;
+    }
+
+    /**
+     * @return The size of all received frames in bytes
+     */
+    public long getBytesIn() {
+        return bytesIn;
+    }
+
+    /**
+     * @return The size of all written frames in bytes
+     */
+    public long getBytesOut() {
+        return bytesOut;
+    }
+
+    public double getMessagesInPerSecond() {
+        return rates[0];
+    }
+
+    public double getMessagesOutPerSecond() {
+        return rates[1];
+    }
+
+    public double getBytesInPerSecond() {
+        return rates[2];
+    }
+
+    public double getBytesOutPerSecond() {
+        return rates[3];
+    }
+
+    /**
+     * @return The amount of requests waiting to be written
+     */
+    public int getQueuedRequests() {
+        return queuedRequests;
+    }
+
+    /**
+     * @return The amount of sent requests waiting for their response
+     */
+    public int getPendingResponses() {
+        return pendingResponses;
+    }
+
+    /**
+     * @return The amount of requests that failed because their response did not arrive in time
+     */
+    public long getTimeouts() {
+        return timeouts;
+    }
+
+    /**
+     * @return The time spent encoding and compressing frames
+     */
+    public long getEncodeNanos() {
+        return encodeNanos;
+    }
+
+    /**
+     * @return The time spent decompressing and decoding frames
+     */
+    public long getDecodeNanos() {
+        return decodeNanos;
+    }
+
+    public long getEncryptNanos() {
+        return encryptNanos;
+    }
+
+    public long getDecryptNanos() {
+        return decryptNanos;
+    }
+
+    /**
+     * @return The time between queueing a request and receiving its response, by the name of the request
+     */
+    public Map<String, HistogramSnapshot> getLatencies() {
+        return latencies;
+    }
+
+    @Override
+    public String toString() {
+        return "in=" + messagesIn + " (" + Math.round(rates[0]) + "/s, " + bytesIn + " bytes)"
+                + " out=" + messagesOut + " (" + Math.round(rates[1]) + "/s, " + bytesOut + " bytes)"
+                + " queued=" + queuedRequests + " pending=" + pendingResponses + " timeouts=" + timeouts
+                + " latencies=" + latencies;
+    }
+}
@@ -0,0 +1,101 @@
+package com.github.redreaperlp.socketapi.communication.protocol;
+
+import com.github.redreaperlp.socketapi.communication.Connection;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.function.Supplier;
+
+/**
+ * Reads frames into one reusable buffer, the buffer only grows if a single frame does not fit into it
+ *
+ * @apiNote The protocol version is checked before every frame, so it can change between two frames
+ */
+public class FrameDecoder {
+    private static final int INITIAL_SIZE = 16 * 1024;
+
+    private ByteBuffer buffer = ByteBuffer.allocate(INITIAL_SIZE);
+
+    /**
+     * Reads whatever is available from the stream, blocks until at least one byte was read
+     *
+     * @param in The stream
+     * @return The amount of bytes read or -1 if the stream ended
+     */
+    public int readFrom(InputStream in) throws IOException {
+        ensureSpace();
+        int read = in.read(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+        if (read > 0) buffer.position(buffer.position() + read);
+        return read;
+    }
+
+    /**
+     * Reads whatever is available from the channel
+     *
+     * @param channel The channel
+     * @return The amount of bytes read or -1 if the channel reached its end
+     */
+    public int readFrom(ReadableByteChannel channel) throws IOException {
+        ensureSpace();
+        return channel.read(buffer);
+    }
+
+    /**
+     * Passes every complete frame in the buffer to the connection
+     *
+     * @param target Supplies the connection receiving the next frame, it can change while decoding
+     * @apiNote The payload passed to {@link Connection#receive(int, ByteBuffer)} is only valid during the call
+     */
+    public void decode(Supplier<Connection> target) throws IOException {
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) {
+                Connection connection = target.get();
+                int start = buffer.position();
+                if (connection.getReadProtocol() >= Frames.V2) {
+                    if (buffer.remaining() < 4) return;
+                    int length = buffer.getInt(start);
+                    if (length < 1 || length > Frames.MAX_FRAME_SIZE) {
+                        throw new IOException("Invalid frame length " + length);
+                    }
+                    if (buffer.remaining() < 4 + length) return;
+                    int flags = buffer.get(start + 4) & 0xFF;
+                    ByteBuffer payload = buffer.slice(start + Frames.HEADER_SIZE, length - 1);
+                    buffer.position(start + 4 + length);
+                    connection.receive(flags, payload);
+                } else {
+                    int end = indexOf(start, (byte) '\n');
+                    if (end == -1) {
+                        if (buffer.remaining() > Frames.MAX_FRAME_SIZE) throw new IOException("Line too long");
+                        return;
+                    }
+                    buffer.position(end + 1);
+                    if (end > start && buffer.get(end - 1) == '\r') end--;
+                    if (end > start) connection.receive(0, buffer.slice(start, end - start));
+                }
+            }
+        } finally {
+            buffer.compact();
+        }
+    }
+
+    private int indexOf(int from, byte value) {
+        for (int i = from; i < buffer.limit(); i++) {
+            if (buffer.get(i) == value) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Grows the buffer if it is full, which only happens if a frame is bigger than the buffer
+     */
+    private void ensureSpace() {
+        if (buffer.hasRemaining()) return;
+        ByteBuffer bigger = ByteBuffer.allocate(buffer.capacity() * 2);
+        buffer.flip();
+        bigger.put(buffer);
+        buffer = bigger;
+    }
+}
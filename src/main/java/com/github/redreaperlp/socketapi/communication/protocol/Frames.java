@@ -0,0 +1,122 @@
+package com.github.redreaperlp.socketapi.communication.protocol;
+
+import com.github.redreaperlp.socketapi.communication.compression.Compressor;
+import com.github.redreaperlp.socketapi.communication.crypto.FrameCipher;
+import com.github.redreaperlp.socketapi.communication.metrics.Metrics;
+import org.json.JSONObject;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The wire formats of a connection
+ * <ul>
+ *     <li>{@link #V1}: every message is one line, terminated by a line break</li>
+ *     <li>{@link #V2}: every message is a frame of {@code [int length][byte flags][payload]},
+ *     the length includes the flags byte. With encryption the payload is sealed with AES-GCM,
+ *     see {@link com.github.redreaperlp.socketapi.communication.crypto.FrameCipher}</li>
+ * </ul>
+ * Every connection starts with {@link #V1}, the version is raised during the registration, see {@link Handshake}
+ */
+public class Frames {
+    public static final int V1 = 1;
+    public static final int V2 = 2;
+    /**
+     * The newest version this library can speak
+     */
+    public static final int CURRENT = V2;
+    /**
+     * Flag of a {@link #V2} frame whose payload was compressed before it was encrypted,
+     * see {@link com.github.redreaperlp.socketapi.communication.compression.Compressor}
+     */
+    public static final int FLAG_COMPRESSED = 1;
+    /**
+     * Flag of a {@link #V2} frame that carries a chunk of a stream instead of a request, its payload starts with the
+     * id of the stream, see {@link com.github.redreaperlp.socketapi.communication.stream.Streams}
+     */
+    public static final int FLAG_STREAM = 2;
+    /**
+     * Flag of the last chunk of a stream
+     */
+    public static final int FLAG_STREAM_END = 4;
+    /**
+     * The size of the length and the flags in front of every {@link #V2} frame
+     */
+    public static final int HEADER_SIZE = 5;
+    /**
+     * Frames above this size are treated as a broken connection
+     */
+    public static final int MAX_FRAME_SIZE = 64 * 1024 * 1024;
+
+    private Frames() {
+    }
+
+    /**
+     * Encodes a serialized request into a frame, the payload is compressed, if negotiated and large enough,
+     * and then encrypted, if a cipher is given
+     *
+     * @param object               The serialized request
+     * @param format               The format to encode with
+     * @param cipher               The cipher or null without encryption
+     * @param compressionThreshold The size in bytes a payload needs to have to be compressed
+     * @return The frame, ready to be written
+     */
+    public static ByteBuffer encode(JSONObject object, WireFormat format, FrameCipher cipher, int compressionThreshold) {
+        return encode(object, format, cipher, compressionThreshold, null);
+    }
+
+    /**
+     * Encodes a serialized request into a frame and records the time spent encoding and encrypting it
+     *
+     * @param object               The serialized request
+     * @param format               The format to encode with
+     * @param cipher               The cipher or null without encryption
+     * @param compressionThreshold The size in bytes a payload needs to have to be compressed
+     * @param metrics              The metrics the time is recorded in or null
+     * @return The frame, ready to be written
+     */
+    public static ByteBuffer encode(JSONObject object, WireFormat format, FrameCipher cipher, int compressionThreshold, Metrics metrics) {
+        long start = metrics == null ? 0 : System.nanoTime();
+        byte[] payload = format.getCodec().encode(object);
+        int flags = 0;
+        Compressor compressor = format.getCompressor();
+        if (compressor != null && payload.length >= compressionThreshold) {
+            byte[] compressed = compressor.compress(payload);
+            if (compressed.length < payload.length) {
+                payload = compressed;
+                flags |= FLAG_COMPRESSED;
+            }
+        }
+        if (metrics != null) {
+            long encoded = System.nanoTime();
+            metrics.encoded(encoded - start);
+            start = encoded;
+        }
+        if (cipher != null) {
+            payload = format.getProtocol() < V2
+                    ? cipher.encryptLegacy(new String(payload, StandardCharsets.UTF_8)).getBytes(StandardCharsets.UTF_8)
+                    : cipher.seal(payload);
+            if (metrics != null) metrics.encrypted(System.nanoTime() - start);
+        }
+        return encode(format.getProtocol(), flags, payload);
+    }
+
+    /**
+     * Wraps a payload into a frame
+     *
+     * @param protocol The protocol version
+     * @param flags    The flags of the frame, ignored for {@link #V1}
+     * @param payload  The payload
+     * @return The frame, ready to be written
+     */
+    public static ByteBuffer encode(int protocol, int flags, byte[] payload) {
+        if (protocol < V2) {
+            ByteBuffer frame = ByteBuffer.allocate(payload.length + 1);
+            frame.put(payload).put((byte) '\n');
+            return frame.flip();
+        }
+        ByteBuffer frame = ByteBuffer.allocate(HEADER_SIZE + payload.length);
+        frame.putInt(payload.length + 1).put((byte) flags).put(payload);
+        return frame.flip();
+    }
+}
@@ -0,0 +1,100 @@
+package com.github.redreaperlp.socketapi.communication.protocol;
+
+import com.github.redreaperlp.socketapi.communication.Connection;
+import com.github.redreaperlp.socketapi.communication.codec.Codec;
+import com.github.redreaperlp.socketapi.communication.codec.JsonCodec;
+import com.github.redreaperlp.socketapi.communication.compression.Compressor;
+import com.github.redreaperlp.socketapi.communication.request.Request;
+import com.github.redreaperlp.socketapi.ns.NetInstance;
+import org.json.JSONObject;
+
+/**
+ * Negotiates the {@link WireFormat} of a connection during the registration
+ * <p>
+ * The client offers the newest version it knows and its codec in the register request, the server answers with the
+ * version both sides know and keeps the codec if it uses the same one, otherwise json is used.
+ * Compression is only used if both sides set a compressor with the same name.
+ * Both sides announce how many requests the other side may send without a response at the same time, see
+ * {@link NetInstance#inFlightWindow()}.
+ * Peers without this answer {@link Frames#V1}, so old clients and servers keep working
+ */
+public class Handshake {
+    private Handshake() {
+    }
+
+    /**
+     * Adds the offer of the client to the register request
+     *
+     * @param netInstance The client
+     * @param data        The data of the register request
+     * @return The data
+     */
+    public static JSONObject offer(NetInstance netInstance, JSONObject data) {
+        data.put("protocol", Frames.CURRENT)
+                .put("codec", netInstance.codec().getName());
+        if (netInstance.compressor() != null) {
+            data.put("compression", netInstance.compressor().getName());
+        }
+        return data.put("window", netInstance.inFlightWindow());
+    }
+
+    /**
+     * Answers the offer of a client, the connection reads the new protocol from now on and writes it after the response
+     *
+     * @param connection The connection of the client
+     * @param response   The response that is sent to the client
+     * @param offer      The data of the register request
+     * @return The answer which has to be sent with the response
+     * @apiNote Has to be called on the reading thread before the response is queued
+     */
+    public static JSONObject accept(Connection connection, Request response, JSONObject offer) {
+        int protocol = protocol(offer);
+        Codec codec = JsonCodec.INSTANCE;
+        Codec own = connection.getNetInstance().codec();
+        if (protocol >= Frames.V2 && own.getName().equals(offer.optString("codec", JsonCodec.NAME))) {
+            codec = own;
+        }
+        Compressor compressor = compressor(connection, protocol, offer);
+        WireFormat format = new WireFormat(protocol, codec, compressor);
+        connection.setReadFormat(format);
+        connection.upgradeAfter(response, format);
+        connection.setSendWindow(offer.optInt("window", 0));
+        JSONObject answer = new JSONObject()
+                .put("protocol", protocol)
+                .put("codec", codec.getName())
+                .put("window", connection.getNetInstance().inFlightWindow());
+        if (compressor != null) answer.put("compression", compressor.getName());
+        return answer;
+    }
+
+    /**
+     * Applies the answer of the server
+     *
+     * @param connection The connection to the server
+     * @param answer     The data of the register response
+     */
+    public static void apply(Connection connection, JSONObject answer) {
+        int protocol = protocol(answer);
+        Codec codec = JsonCodec.INSTANCE;
+        Codec own = connection.getNetInstance().codec();
+        if (protocol >= Frames.V2 && own.getName().equals(answer.optString("codec", JsonCodec.NAME))) {
+            codec = own;
+        }
+        WireFormat format = new WireFormat(protocol, codec, compressor(connection, protocol, answer));
+        connection.setReadFormat(format);
+        connection.setWriteFormat(format);
+        connection.setSendWindow(answer.optInt("window", 0));
+    }
+
+    private static Compressor compressor(Connection connection, int protocol, JSONObject data) {
+        Compressor own = connection.getNetInstance().compressor();
+        if (protocol < Frames.V2 || own == null || !own.getName().equals(data.optString("compression", null))) {
+            return null;
+        }
+        return own;
+    }
+
+    private static int protocol(JSONObject data) {
+        return Math.max(Frames.V1, Math.min(data.optInt("protocol", Frames.V1), Frames.CURRENT));
+    }
+}
@@ -0,0 +1,70 @@
+package com.github.redreaperlp.socketapi.communication.protocol;
+
+import com.github.redreaperlp.socketapi.communication.codec.Codec;
+import com.github.redreaperlp.socketapi.communication.codec.JsonCodec;
+import com.github.redreaperlp.socketapi.communication.compression.Compressor;
+
+import java.util.Objects;
+
+/**
+ * Everything that was negotiated about how one direction of a connection is encoded
+ */
+public class WireFormat {
+    /**
+     * The format every connection starts with
+     */
+    public static final WireFormat LEGACY = new WireFormat(Frames.V1, JsonCodec.INSTANCE);
+
+    private final int protocol;
+    private final Codec codec;
+    private final Compressor compressor;
+
+    public WireFormat(int protocol, Codec codec) {
+        this(protocol, codec, null);
+    }
+
+    public WireFormat(int protocol, Codec codec, Compressor compressor) {
+        this.protocol = protocol;
+        this.codec = codec;
+        this.compressor = compressor;
+    }
+
+    /**
+     * @return The protocol version, see {@link Frames}
+     */
+    public int getProtocol() {
+        return protocol;
+    }
+
+    public Codec getCodec() {
+        return codec;
+    }
+
+    /**
+     * @return The compressor both sides agreed on or null if frames are not compressed
+     */
+    public Compressor getCompressor() {
+        return compressor;
+    }
+
+    /**
+     * Formats are equal if frames encoded with one can be read with the other
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof WireFormat other)) return false;
+        return protocol == other.protocol
+                && codec.getName().equals(other.codec.getName())
+                && Objects.equals(compressorName(), other.compressorName());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(protocol, codec.getName(), compressorName());
+    }
+
+    private String compressorName() {
+        return compressor == null ? null : compressor.getName();
+    }
+}
@@ -0,0 +1,67 @@
+package com.github.redreaperlp.socketapi.communication.queue;
+
+/**
+ * Limits how much a connection may have waiting to be written
+ * <p>
+ * A connection stops being writable as soon as one high watermark is reached and becomes writable again once both
+ * amounts are at or below their low watermark. Messages are the queued requests, bytes are the frames that were
+ * encoded but not written to the socket yet
+ *
+ * @apiNote Bytes are only counted for connections on an event loop, connections with their own threads write every
+ * frame right away and wait in the socket instead
+ */
+public class FlowControl {
+    /**
+     * The status requests fail with if they are rejected by {@link OverflowPolicy#FAIL}
+     */
+    public static final int STATUS_OVERFLOW = 429;
+    /**
+     * Never limits anything, the default
+     */
+    public static final FlowControl UNBOUNDED = new FlowControl(Integer.MAX_VALUE, Integer.MAX_VALUE,
+            Long.MAX_VALUE, Long.MAX_VALUE, OverflowPolicy.BLOCK);
+
+    private final int lowMessages;
+    private final int highMessages;
+    private final long lowBytes;
+    private final long highBytes;
+    private final OverflowPolicy policy;
+
+    /**
+     * @param lowMessages  The amount of queued requests at which the connection becomes writable again
+     * @param highMessages The amount of queued requests at which the connection stops being writable
+     * @param lowBytes     The amount of unwritten bytes at which the connection becomes writable again
+     * @param highBytes    The amount of unwritten bytes at which the connection stops being writable
+     * @param policy       What happens with requests queued while the connection is not writable
+     */
+    public FlowControl(int lowMessages, int highMessages, long lowBytes, long highBytes, OverflowPolicy policy) {
+        if (lowMessages > highMessages || lowBytes > highBytes) {
+            throw new IllegalArgumentException("Low watermarks must not be above the high watermarks");
+        }
+        this.lowMessages = lowMessages;
+        this.highMessages = highMessages;
+        this.lowBytes = lowBytes;
+        this.highBytes = highBytes;
+        this.policy = policy;
+    }
+
+    public int getLowMessages() {
+        return lowMessages;
+    }
+
+    public int getHighMessages() {
+        return highMessages;
+    }
+
+    public long getLowBytes() {
+        return lowBytes;
+    }
+
+    public long getHighBytes() {
+        return highBytes;
+    }
+
+    public OverflowPolicy getPolicy() {
+        return policy;
+    }
+}
@@ -0,0 +1,80 @@
+package com.github.redreaperlp.socketapi.communication.queue;
+
+import com.github.redreaperlp.socketapi.communication.dispatch.SerialExecutor;
+import com.github.redreaperlp.socketapi.communication.request.Request;
+
+/**
+ * A lane of a connection, the requests of one channel are written and, with
+ * {@link com.github.redreaperlp.socketapi.communication.dispatch.DispatchMode#ORDERED}, handled in the order they were
+ * queued, independent of the other channels
+ * <p>
+ * The writer takes up to {@link #getWeight()} requests from a channel before it moves on to the next one, so a
+ * channel with a large transfer can not hold back the requests of the others
+ */
+public class LogicalChannel {
+    /**
+     * The channel of requests that do not name one
+     */
+    public static final String DEFAULT = "default";
+    /**
+     * The channel of the chunks of streams
+     */
+    public static final String STREAMS = "streams";
+    /**
+     * The weight of {@link #DEFAULT} and of channels that were not opened with a weight
+     */
+    public static final int DEFAULT_WEIGHT = 4;
+
+    private final String name;
+    private volatile int weight;
+    private final MpscQueue<Request> requests = new MpscQueue<>();
+    private final SerialExecutor serialExecutor = new SerialExecutor();
+
+    LogicalChannel(String name, int weight) {
+        this.name = name;
+        setWeight(weight);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return The amount of requests written from this channel in one turn
+     */
+    public int getWeight() {
+        return weight;
+    }
+
+    /**
+     * @param weight The amount of requests written from this channel in one turn, at least 1
+     */
+    public void setWeight(int weight) {
+        if (weight < 1) throw new IllegalArgumentException("The weight has to be at least 1");
+        this.weight = weight;
+    }
+
+    /**
+     * @return The executor keeping the order of the requests received on this channel
+     */
+    public SerialExecutor getSerialExecutor() {
+        return serialExecutor;
+    }
+
+    void offer(Request request) {
+        requests.offer(request);
+    }
+
+    Request poll() {
+        return requests.poll();
+    }
+
+    boolean isEmpty() {
+        return requests.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return name + " (weight " + weight + ")";
+    }
+}
@@ -0,0 +1,63 @@
+package com.github.redreaperlp.socketapi.communication.queue;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A lock-free queue for many producers and a single consumer
+ * <p>
+ * Producers swap themselves in as the new head with one atomic operation and link the previous head afterwards,
+ * the consumer follows the links from the tail. {@link #poll()} must only be called by one thread at a time
+ *
+ * @param <T> The element type
+ */
+public class MpscQueue<T> {
+    private final AtomicReference<Node<T>> head;
+    private Node<T> tail;
+
+    public MpscQueue() {
+        Node<T> stub = new Node<>(null);
+        head = new AtomicReference<>(stub);
+        tail = stub;
+    }
+
+    /**
+     * Adds an element, can be called by any thread
+     *
+     * @param value The element
+     */
+    public void offer(T value) {
+        Node<T> node = new Node<>(value);
+        Node<T> previous = head.getAndSet(node);
+        previous.next = node;
+    }
+
+    /**
+     * Takes the oldest element out of the queue, only the consumer thread may call this
+     *
+     * @return The element or null if the queue is empty or a producer did not finish linking its element yet
+     */
+    public T poll() {
+        Node<T> next = tail.next;
+        if (next == null) return null;
+        T value = next.value;
+        next.value = null;
+        tail = next;
+        return value;
+    }
+
+    /**
+     * @return true if nothing was offered that was not polled yet
+     */
+    public boolean isEmpty() {
+        return head.get() == tail;
+    }
+
+    private static class Node<T> {
+        private volatile Node<T> next;
+        private T value;
+
+        Node(T value) {
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.github.redreaperlp.socketapi.communication.queue;
+
+import com.github.redreaperlp.socketapi.communication.request.Request;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The requests of a connection that wait to be written, split into {@link LogicalChannel logical channels} that are
+ * written by weighted round robin
+ * <p>
+ * Control requests, like pings and the credits of streams, have their own lane that is always emptied first,
+ * it is meant for small requests that must not wait behind any channel
+ *
+ * @apiNote Any thread can add requests, only the writing thread of the connection may take them out
+ */
+public class OutboundQueue {
+    /**
+     * The amount of channels a connection can have at most, the other side can open channels by naming them
+     */
+    public static final int MAX_CHANNELS = 64;
+
+    private final MpscQueue<Request> priority = new MpscQueue<>();
+    private final Map<String, LogicalChannel> byName = new ConcurrentHashMap<>();
+    private volatile LogicalChannel[] channels = new LogicalChannel[0];
+    private final LogicalChannel defaultChannel;
+    private final AtomicInteger size = new AtomicInteger();
+    // only used by the writing thread
+    private int current;
+    private int turn;
+
+    public OutboundQueue() {
+        defaultChannel = open(LogicalChannel.DEFAULT, LogicalChannel.DEFAULT_WEIGHT);
+        open(LogicalChannel.STREAMS, 1);
+    }
+
+    /**
+     * Opens a channel or changes the weight of an open one
+     *
+     * @param name   The name of the channel
+     * @param weight The amount of requests written from the channel in one turn
+     * @return The channel
+     * @throws IllegalStateException if there are {@link #MAX_CHANNELS} channels already
+     */
+    public LogicalChannel open(String name, int weight) {
+        LogicalChannel channel = getOrOpen(name);
+        if (channel == null) throw new IllegalStateException("A connection can not have more than " + MAX_CHANNELS + " channels");
+        channel.setWeight(weight);
+        return channel;
+    }
+
+    /**
+     * @param name The name of the channel, null for the default channel
+     * @return The channel, it is opened with {@link LogicalChannel#DEFAULT_WEIGHT} if it is not open yet,
+     * or the default channel if there are too many channels
+     */
+    public LogicalChannel channel(String name) {
+        if (name == null) return defaultChannel;
+        LogicalChannel channel = getOrOpen(name);
+        return channel == null ? defaultChannel : channel;
+    }
+
+    private LogicalChannel getOrOpen(String name) {
+        LogicalChannel channel = byName.get(name);
+        if (channel != null) return channel;
+        synchronized (byName) {
+            channel = byName.get(name);
+            if (channel != null) return channel;
+            if (channels.length >= MAX_CHANNELS) return null;
+            channel = new LogicalChannel(name, LogicalChannel.DEFAULT_WEIGHT);
+            LogicalChannel[] grown = Arrays.copyOf(channels, channels.length + 1);
+            grown[channels.length] = channel;
+            channels = grown;
+            byName.put(name, channel);
+            return channel;
+        }
+    }
+
+    /**
+     * @return The open channels, in the order they are written
+     */
+    public LogicalChannel[] getChannels() {
+        return channels.clone();
+    }
+
+    public LogicalChannel getDefaultChannel() {
+        return defaultChannel;
+    }
+
+    public void offer(Request request) {
+        offer(defaultChannel, request);
+    }
+
+    public void offer(LogicalChannel channel, Request request) {
+        size.incrementAndGet();
+        channel.offer(request);
+    }
+
+    public void offerPriority(Request request) {
+        size.incrementAndGet();
+        priority.offer(request);
+    }
+
+    /**
+     * Takes the next request, priority requests first, the channels take turns and every channel can give as many
+     * requests per turn as its weight allows
+     *
+     * @return The next request or null if there is none
+     */
+    public Request poll() {
+        Request request = priority.poll();
+        if (request == null) request = pollChannels();
+        if (request != null) size.decrementAndGet();
+        return request;
+    }
+
+    private Request pollChannels() {
+        LogicalChannel[] channels = this.channels;
+        // one more step than there are channels, so the current channel gets a new turn if it is the only busy one
+        for (int step = 0; step <= channels.length; step++) {
+            if (turn > 0) {
+                Request request = channels[current].poll();
+                if (request != null) {
+                    turn--;
+                    return request;
+                }
+            }
+            current = (current + 1) % channels.length;
+            turn = channels[current].getWeight();
+        }
+        return null;
+    }
+
+    public boolean isEmpty() {
+        if (!priority.isEmpty()) return false;
+        for (LogicalChannel channel : channels) {
+            if (!channel.isEmpty()) return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return The amount of queued requests
+     */
+    public int size() {
+        return size.get();
+    }
+}
@@ -0,0 +1,24 @@
+package com.github.redreaperlp.socketapi.communication.queue;
+
+/**
+ * What happens with a request that is queued while the connection is not writable, see {@link FlowControl}
+ *
+ * @apiNote Responses are always queued, so the other side never waits for an answer that was thrown away
+ */
+public enum OverflowPolicy {
+    /**
+     * The queuing thread waits until the connection is writable again
+     * <p>
+     * On an event loop thread this behaves like {@link #FAIL}, waiting there would stop the loop from writing
+     */
+    BLOCK,
+    /**
+     * The request is not queued, a {@link com.github.redreaperlp.socketapi.communication.request.special.RequestPromising}
+     * fails right away with {@link FlowControl#STATUS_OVERFLOW}
+     */
+    FAIL,
+    /**
+     * Requests without a response are dropped, requests with a response are still queued
+     */
+    DROP
+}
@@ -0,0 +1,16 @@
+package com.github.redreaperlp.socketapi.communication.queue;
+
+import com.github.redreaperlp.socketapi.communication.Connection;
+
+/**
+ * Is called when a connection stops or starts being writable, see {@link FlowControl}
+ */
+@FunctionalInterface
+public interface WritabilityListener {
+    /**
+     * @param con      The connection
+     * @param writable If requests can be queued without reaching a high watermark
+     * @apiNote Called on the thread that queued or wrote the request which changed the state, so it must not block
+     */
+    void writabilityChanged(Connection con, boolean writable);
+}
@@ -21,4 +21,22 @@ public interface Request {
     JSONObject getData();
 
     void pack();
+
+    /**
+     * @return The name of the logical channel the request is sent on, null for the default channel
+     */
+    default String getChannel() {
+        return null;
+    }
+
+    /**
+     * Sends the request on a logical channel, the requests of a channel keep their order and are written fairly
+     * with the requests of the other channels, see {@link com.github.redreaperlp.socketapi.communication.queue.LogicalChannel}
+     *
+     * @param channel The name of the channel, null for the default channel
+     * @apiNote Has to be set before the request is queued. Requests that do not override this ignore the channel
+     * and are always sent on the default channel
+     */
+    default void setChannel(String channel) {
+    }
 }
@@ -1,5 +1,6 @@
 package com.github.redreaperlp.socketapi.communication.request.requests;
 
+import com.github.redreaperlp.socketapi.communication.protocol.Handshake;
 import com.github.redreaperlp.socketapi.communication.request.special.RequestPromising;
 import org.json.JSONObject;
 
@@ -22,7 +23,7 @@ public class RequestRegister extends RequestPromising {
 
     @Override
     public void pack() {
-        setData(new JSONObject().put("identifier", connectionIdentifier));
+        setData(Handshake.offer(getManager().getNetInstance(), new JSONObject().put("identifier", connectionIdentifier)));
     }
 
     @Override
@@ -33,6 +34,8 @@ public class RequestRegister extends RequestPromising {
     public void validateResponse() {
         if (getResponse().getStatus() != 200) {
             failed(getResponse().getStatus());
+            return;
         }
+        Handshake.apply(getManager().getConnection(), getResponse().getData());
     }
 }
@@ -0,0 +1,136 @@
+package com.github.redreaperlp.socketapi.communication.request.special;
+
+import com.github.redreaperlp.socketapi.communication.Connection;
+import com.github.redreaperlp.socketapi.communication.protocol.Frames;
+import com.github.redreaperlp.socketapi.communication.request.Request;
+import com.github.redreaperlp.socketapi.communication.response.Response;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.stream.Stream;
+
+/**
+ * Sends many requests in one frame, the receiver handles them one after another like single requests
+ * <p>
+ * Each {@link RequestPromising} in the batch still gets its own response and timeout
+ *
+ * @apiNote If the connection still uses protocol version 1, the requests are queued one by one instead
+ */
+public class RequestBatch extends RequestVoiding {
+    public static final String name = "batch";
+    private final List<Request> requests = new ArrayList<>();
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Adds a request to the batch
+     *
+     * @param request The request, created by the same connection as the batch
+     * @return This batch
+     */
+    public RequestBatch add(Request request) {
+        requests.add(request);
+        return this;
+    }
+
+    public List<Request> getRequests() {
+        return requests;
+    }
+
+    @Override
+    public void pack() {
+        Connection connection = getManager().getConnection();
+        JSONArray array = new JSONArray();
+        for (Request request : requests) {
+            request.pack();
+            array.put(connection.serialize(request));
+        }
+        setData(new JSONObject().put("requests", array));
+    }
+
+    /**
+     * Sends the batch without waiting for the responses
+     */
+    @Override
+    public void queue() {
+        if (requests.isEmpty()) return;
+        if (getManager().getConnection().getWriteFormat().getProtocol() < Frames.V2) {
+            requests.forEach(Request::queue);
+            return;
+        }
+        long now = System.currentTimeMillis();
+        for (RequestPromising promising : getPromising()) {
+            promising.setTimeSent(now);
+        }
+        pack();
+        getManager().queue(this);
+    }
+
+    /**
+     * Sends the batch and waits for all responses
+     *
+     * @return The responses in the order the requests were added, requests without a response are skipped
+     */
+    public List<Response> complete() {
+        return completeAsync().join();
+    }
+
+    /**
+     * Sends the batch without waiting
+     *
+     * @return A future completed with the responses in the order the requests were added, once every request is done
+     */
+    public CompletableFuture<List<Response>> completeAsync() {
+        List<RequestPromising> promising = getPromising();
+        queue();
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[promising.size()];
+        for (int i = 0; i < futures.length; i++) {
+            futures[i] = promising.get(i).getFuture();
+        }
+        return CompletableFuture.allOf(futures).thenApply(v -> {
+            List<Response> responses = new ArrayList<>(promising.size());
+            for (RequestPromising request : promising) {
+                responses.add(request.getResponse());
+            }
+            return responses;
+        });
+    }
+
+    /**
+     * Sends the batch and returns the responses as they arrive
+     *
+     * @return A stream of the responses in the order they arrived, reading the stream waits for the next response
+     */
+    public Stream<Response> stream() {
+        List<RequestPromising> promising = getPromising();
+        BlockingQueue<Response> arrived = new LinkedBlockingQueue<>();
+        for (RequestPromising request : promising) {
+            request.getFuture().thenAccept(arrived::add);
+        }
+        queue();
+        return Stream.generate(() -> {
+            try {
+                return arrived.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for a response", e);
+            }
+        }).limit(promising.size());
+    }
+
+    private List<RequestPromising> getPromising() {
+        List<RequestPromising> promising = new ArrayList<>();
+        for (Request request : requests) {
+            if (request instanceof RequestPromising p) promising.add(p);
+        }
+        return promising;
+    }
+}
@@ -3,21 +3,30 @@ package com.github.redreaperlp.socketapi.communication.request.special;
 import com.github.redreaperlp.socketapi.communication.RequestManager;
 import com.github.redreaperlp.socketapi.communication.request.Request;
 import com.github.redreaperlp.socketapi.communication.response.Response;
+import com.github.redreaperlp.socketapi.communication.timer.Timeout;
 import org.json.JSONObject;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 public abstract class RequestPromising implements Request {
+    private static final System.Logger LOGGER = System.getLogger(RequestPromising.class.getName());
     private RequestManager manager;
     private Response response;
     private JSONObject data;
     private long id;
     private long timeSent;
     private long timeReceived;
-    private final Object lock = new Object();
+    private long queuedNanos;
+    private long timeout;
+    private long deadline;
+    private volatile Timeout timeoutHandle;
+    private final AtomicBoolean holdsCredit = new AtomicBoolean();
+    private final CompletableFuture<Response> future = new CompletableFuture<>();
     private int failed = 200;
     private boolean isResponding = false;
-    private AtomicBoolean responseReceived = new AtomicBoolean(false);
+    private String channel;
 
     public RequestPromising(long id) {
         this.id = id;
@@ -29,21 +38,34 @@ public abstract class RequestPromising implements Request {
      */
     public Response complete() {
         queue();
-        synchronized (lock) {
-            try {
-                System.out.print("Sent ");
-                if (!responseReceived.get()) {
-                    lock.wait();
-                }
-                timeReceived = System.currentTimeMillis();
-                System.out.println("-> " + getName() + " responded after " + (System.currentTimeMillis() - getTimeSent()) + "ms (id: " + getId() + ")");
-            } catch (InterruptedException e) {
-                e.printStackTrace();
-            }
+        try {
+            future.get();
+        } catch (InterruptedException | ExecutionException e) {
+            LOGGER.log(System.Logger.Level.WARNING, () -> "Waiting for the response of " + getName() + " failed", e);
         }
         return getResponse();
     }
 
+    /**
+     * Sends the request without waiting for the response
+     *
+     * @return A future that is completed with the response, or when the request failed, for example because it
+     * timed out, check {@link #failed()} before using the response
+     * @apiNote Stages added without an executor run on the thread that received the response,
+     * so blocking work should use the async variants of {@link CompletableFuture}
+     */
+    public CompletableFuture<Response> completeAsync() {
+        queue();
+        return future;
+    }
+
+    /**
+     * @return The future of this request, completed when the request is {@link #done()}
+     */
+    public CompletableFuture<Response> getFuture() {
+        return future;
+    }
+
     /**
      * Queues the request but does not wait for the response
      */
@@ -95,6 +117,7 @@ public abstract class RequestPromising implements Request {
         if (response == null) {
             response = getManager().getRequest(Response.class, getId());
             response.setID(id);
+            response.setChannel(channel);
         }
         return response;
     }
@@ -112,10 +135,6 @@ public abstract class RequestPromising implements Request {
         }
         response.setData(data);
         response.setStatus(status);
-        responseReceived.set(true);
-        synchronized (lock) {
-            lock.notifyAll();
-        }
     }
 
     /**
@@ -140,14 +159,15 @@ public abstract class RequestPromising implements Request {
     }
 
     /**
-     * Notifies the waiting thread that the request is done
+     * Notifies the waiting thread and completes the future of the request
      *
-     * @apiNote This will be called automatically when the response is received and handled
+     * @apiNote This will be called automatically when the response is received and handled or when the request
+     * timed out, the waiting thread continues after this and not already when the response is set
      */
     public void done() {
-        synchronized (lock) {
-            lock.notifyAll();
-        }
+        if (future.isDone()) return;
+        timeReceived = System.currentTimeMillis();
+        future.complete(getResponse());
     }
 
     /**
@@ -174,6 +194,81 @@ public abstract class RequestPromising implements Request {
         this.timeSent = timeSent;
     }
 
+    /**
+     * @return The value of {@link System#nanoTime()} when the request was queued, used to measure its latency
+     */
+    public long getQueuedNanos() {
+        return queuedNanos;
+    }
+
+    public void setQueuedNanos(long queuedNanos) {
+        this.queuedNanos = queuedNanos;
+    }
+
+    /**
+     * Sets the time after which the request fails if there is no response
+     *
+     * @param timeout The timeout in milliseconds, 0 to use the timeout of the connection
+     * @apiNote Has to be set before the request is queued
+     */
+    public void setTimeout(long timeout) {
+        this.timeout = timeout;
+    }
+
+    /**
+     * @return The timeout in milliseconds or 0 if the timeout of the connection is used
+     */
+    public long getTimeout() {
+        return timeout;
+    }
+
+    /**
+     * @return The time in milliseconds at which the request fails if there is no response, set when it is queued
+     */
+    public long getDeadline() {
+        return deadline;
+    }
+
+    public void setDeadline(long deadline) {
+        this.deadline = deadline;
+    }
+
+    /**
+     * @return The scheduled timeout of this request or null if it was not queued yet
+     */
+    public Timeout getTimeoutHandle() {
+        return timeoutHandle;
+    }
+
+    public void setTimeoutHandle(Timeout timeoutHandle) {
+        this.timeoutHandle = timeoutHandle;
+    }
+
+    /**
+     * @return If this request uses one of the credits of the in-flight window of its connection
+     */
+    public boolean holdsCredit() {
+        return holdsCredit.get();
+    }
+
+    /**
+     * Takes a credit of the in-flight window for this request
+     *
+     * @return If the credit was taken, false if the request holds one already
+     */
+    public boolean claimCredit() {
+        return holdsCredit.compareAndSet(false, true);
+    }
+
+    /**
+     * Gives the credit of this request back, only one of the threads releasing it at the same time succeeds
+     *
+     * @return If the request held a credit
+     */
+    public boolean releaseCredit() {
+        return holdsCredit.compareAndSet(true, false);
+    }
+
     /**
      * Sets the failed status
      *
@@ -207,7 +302,19 @@ public abstract class RequestPromising implements Request {
     public boolean isResponding() {
         return isResponding;
     }
-}
 
+    @Override
+    public String getChannel() {
+        return channel;
+    }
 
-//Todo: For preventing a response to arrive before the wait is called add a new Thread that checks if a request has been responded, otherwise the program hangs up
\ No newline at end of file
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The response is sent back on the same channel
+     */
+    @Override
+    public void setChannel(String channel) {
+        this.channel = channel;
+    }
+}
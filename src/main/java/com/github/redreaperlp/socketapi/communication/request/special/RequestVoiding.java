@@ -10,6 +10,7 @@ import org.json.JSONObject;
 public abstract class RequestVoiding implements Request {
     private RequestManager manager;
     private JSONObject data;
+    private String channel;
     @Override
     public RequestManager getManager() {
         return manager;
@@ -32,4 +33,14 @@ public abstract class RequestVoiding implements Request {
 
     @Override
     public void pack() {}
+
+    @Override
+    public String getChannel() {
+        return channel;
+    }
+
+    @Override
+    public void setChannel(String channel) {
+        this.channel = channel;
+    }
 }
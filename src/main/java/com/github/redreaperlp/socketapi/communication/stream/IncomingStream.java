@@ -0,0 +1,148 @@
+package com.github.redreaperlp.socketapi.communication.stream;
+
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * A stream the other side of a connection sends, it is read like any other {@link InputStream}
+ * <p>
+ * At most {@link Streams#WINDOW} chunks are buffered, the sender only sends more after they were read
+ *
+ * @apiNote Must only be read by one thread
+ */
+public class IncomingStream extends InputStream {
+    private static final ByteBuffer END = ByteBuffer.allocate(0);
+
+    private final long id;
+    private final JSONObject meta;
+    private final Streams streams;
+    private final BlockingQueue<ByteBuffer> chunks = new LinkedBlockingQueue<>();
+    private ByteBuffer current;
+    private int consumed;
+    private boolean ended;
+    private volatile boolean closed;
+    private volatile IOException failure;
+
+    IncomingStream(long id, JSONObject meta, Streams streams) {
+        this.id = id;
+        this.meta = meta;
+        this.streams = streams;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * @return The data the sender opened the stream with, for example a file name
+     */
+    public JSONObject getMeta() {
+        return meta;
+    }
+
+    @Override
+    public int read() throws IOException {
+        ByteBuffer chunk = next();
+        return chunk == null ? -1 : chunk.get() & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) return 0;
+        ByteBuffer chunk = next();
+        if (chunk == null) return -1;
+        int read = Math.min(len, chunk.remaining());
+        chunk.get(b, off, read);
+        return read;
+    }
+
+    @Override
+    public int available() {
+        return current == null ? 0 : current.remaining();
+    }
+
+    /**
+     * @return The chunk that is read or null if the stream ended
+     */
+    private ByteBuffer next() throws IOException {
+        while (current == null || !current.hasRemaining()) {
+            if (failure != null) throw failure;
+            if (ended || closed) return null;
+            if (current != null) {
+                current = null;
+                consumed();
+            }
+            ByteBuffer chunk;
+            try {
+                chunk = chunks.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for the next chunk");
+            }
+            if (chunk == END) {
+                if (failure != null) throw failure;
+                ended = true;
+                streams.finished(this);
+                return null;
+            }
+            current = chunk;
+        }
+        return current;
+    }
+
+    /**
+     * Grants the sender new credits once half of the window was read
+     */
+    private void consumed() {
+        if (++consumed >= Streams.WINDOW / 2) {
+            streams.credit(this, consumed);
+            consumed = 0;
+        }
+    }
+
+    /**
+     * Adds a received chunk
+     *
+     * @param chunk The data of the chunk, owned by this stream
+     * @param last  If the sender marked it as the last chunk
+     */
+    void offer(ByteBuffer chunk, boolean last) {
+        if (closed) return;
+        if (chunks.size() > Streams.WINDOW) {
+            fail(new IOException("The sender did not respect the window of the stream"));
+            streams.cancel(this);
+            return;
+        }
+        if (chunk.hasRemaining()) chunks.add(chunk);
+        if (last) chunks.add(END);
+    }
+
+    /**
+     * Lets the reader fail with the given exception
+     *
+     * @param cause Why the stream failed
+     */
+    void fail(IOException cause) {
+        failure = cause;
+        chunks.add(END);
+    }
+
+    /**
+     * Closes the stream, a stream that was not read to its end is cancelled, so the sender stops sending it
+     */
+    @Override
+    public void close() {
+        if (closed) return;
+        closed = true;
+        if (!ended && failure == null) streams.cancel(this);
+        chunks.clear();
+        // wakes up a thread that waits for the next chunk
+        chunks.add(END);
+    }
+}
@@ -0,0 +1,115 @@
+package com.github.redreaperlp.socketapi.communication.stream;
+
+import com.github.redreaperlp.socketapi.communication.crypto.FrameCipher;
+import com.github.redreaperlp.socketapi.communication.protocol.Frames;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+
+/**
+ * A stream that is sent to the other side of a connection in chunks, see {@link Streams}
+ * <p>
+ * The source is read on its own thread. Only {@link Streams#WINDOW} chunks are sent before the receiver has read
+ * them, so a slow receiver slows down reading the source instead of filling up the memory
+ */
+public class OutgoingStream {
+    private final long id;
+    private final Streams streams;
+    private final ReadableByteChannel source;
+    private final FrameCipher cipher;
+    private final Semaphore credits = new Semaphore(Streams.WINDOW);
+    private final CompletableFuture<Void> future = new CompletableFuture<>();
+
+    OutgoingStream(long id, Streams streams, ReadableByteChannel source, FrameCipher cipher) {
+        this.id = id;
+        this.streams = streams;
+        this.source = source;
+        this.cipher = cipher;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * @return A future that is completed when the last chunk was written, or completed exceptionally if reading
+     * the source failed, the receiver cancelled the stream or the connection closed
+     */
+    public CompletableFuture<Void> getFuture() {
+        return future;
+    }
+
+    /**
+     * Reads the source and queues its chunks until it ends
+     */
+    void pump() {
+        try (source) {
+            boolean last = false;
+            while (!last) {
+                credits.acquire();
+                if (future.isDone()) return;
+                ByteBuffer frame = ByteBuffer.allocate(Frames.HEADER_SIZE + Streams.ID_SIZE + Streams.CHUNK_SIZE);
+                frame.position(Frames.HEADER_SIZE).putLong(id);
+                int read = 0;
+                // reads straight into the frame, so the data is copied only once
+                while (frame.hasRemaining()) {
+                    read = source.read(frame);
+                    if (read == -1) break;
+                }
+                last = read == -1;
+                streams.queueChunk(new StreamChunk(this, seal(frame, last), last));
+            }
+        } catch (IOException e) {
+            if (future.completeExceptionally(e)) streams.abort(this, e.getMessage());
+        } catch (InterruptedException e) {
+            if (future.completeExceptionally(e)) streams.abort(this, "Interrupted");
+        }
+    }
+
+    /**
+     * Writes the header of a chunk and encrypts it, if enabled
+     *
+     * @param frame The frame with the id and the data of the chunk after the header
+     * @param last  If this is the last chunk of the stream
+     * @return The frame, ready to be written
+     */
+    private ByteBuffer seal(ByteBuffer frame, boolean last) {
+        int flags = Frames.FLAG_STREAM | (last ? Frames.FLAG_STREAM_END : 0);
+        if (cipher != null) {
+            byte[] payload = Arrays.copyOfRange(frame.array(), Frames.HEADER_SIZE, frame.position());
+            return Frames.encode(Frames.V2, flags, cipher.seal(payload));
+        }
+        frame.flip();
+        frame.putInt(0, frame.limit() - Integer.BYTES).put(4, (byte) flags);
+        return frame;
+    }
+
+    /**
+     * Allows the sender to send more chunks
+     *
+     * @param chunks The amount of chunks the receiver has read
+     */
+    void credit(int chunks) {
+        credits.release(chunks);
+    }
+
+    /**
+     * Stops sending the stream
+     *
+     * @param cause Why the stream was stopped
+     */
+    void cancel(IOException cause) {
+        future.completeExceptionally(cause);
+        // wakes up the thread reading the source
+        credits.release(Streams.WINDOW);
+    }
+
+    void written() {
+        future.complete(null);
+        streams.finished(this);
+    }
+}
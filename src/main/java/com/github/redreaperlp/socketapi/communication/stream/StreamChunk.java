@@ -0,0 +1,39 @@
+package com.github.redreaperlp.socketapi.communication.stream;
+
+import com.github.redreaperlp.socketapi.communication.request.special.RequestVoiding;
+
+import java.nio.ByteBuffer;
+
+/**
+ * One encoded chunk of an {@link OutgoingStream} in the queue of a connection
+ */
+public class StreamChunk extends RequestVoiding {
+    private final OutgoingStream stream;
+    private final ByteBuffer frame;
+    private final boolean last;
+
+    StreamChunk(OutgoingStream stream, ByteBuffer frame, boolean last) {
+        this.stream = stream;
+        this.frame = frame;
+        this.last = last;
+    }
+
+    @Override
+    public String getName() {
+        return "stream-chunk";
+    }
+
+    /**
+     * @return The frame, ready to be written
+     */
+    public ByteBuffer getFrame() {
+        return frame;
+    }
+
+    /**
+     * Is called by the connection when the frame was handed to the socket
+     */
+    public void written() {
+        if (last) stream.written();
+    }
+}
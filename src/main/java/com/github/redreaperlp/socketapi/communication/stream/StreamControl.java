@@ -0,0 +1,22 @@
+package com.github.redreaperlp.socketapi.communication.stream;
+
+import com.github.redreaperlp.socketapi.communication.request.special.RequestVoiding;
+import org.json.JSONObject;
+
+/**
+ * Opens, cancels or grants credits for a stream, it is handled by the {@link Streams} of the receiving connection
+ * instead of a request handler
+ */
+public class StreamControl extends RequestVoiding {
+    private final String name;
+
+    public StreamControl(String name, JSONObject data) {
+        this.name = name;
+        setData(data);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+}
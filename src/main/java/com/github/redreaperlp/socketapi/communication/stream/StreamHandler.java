@@ -0,0 +1,20 @@
+package com.github.redreaperlp.socketapi.communication.stream;
+
+import com.github.redreaperlp.socketapi.communication.Connection;
+
+import java.io.IOException;
+
+/**
+ * Receives the streams the other side of a connection sends, see {@link Connection#stream}
+ */
+@FunctionalInterface
+public interface StreamHandler {
+    /**
+     * @param con    The connection the stream arrived on
+     * @param stream The stream, read it until it ends
+     * @throws IOException if reading the stream failed, the stream is cancelled
+     * @apiNote Called on its own thread, so it may block while reading. The stream is closed when this method
+     * returns, a stream that was not read to its end is cancelled
+     */
+    void onStream(Connection con, IncomingStream stream) throws IOException;
+}
@@ -0,0 +1,207 @@
+package com.github.redreaperlp.socketapi.communication.stream;
+
+import com.github.redreaperlp.socketapi.communication.Connection;
+import com.github.redreaperlp.socketapi.communication.crypto.FrameCipher;
+import com.github.redreaperlp.socketapi.communication.protocol.Frames;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The streams of one connection
+ * <p>
+ * A stream is opened with a {@link #OPEN} request, followed by its chunks, each one a {@link Frames#V2} frame with
+ * {@link Frames#FLAG_STREAM} whose payload is the id of the stream and up to {@link #CHUNK_SIZE} bytes of data.
+ * The last chunk also has {@link Frames#FLAG_STREAM_END}. Chunks are queued on the
+ * {@link com.github.redreaperlp.socketapi.communication.queue.LogicalChannel#STREAMS} channel, so the requests of
+ * the other channels are written between them. The receiver grants new credits with {@link #CREDIT} requests as it reads the chunks
+ * and can stop the stream with {@link #CANCEL}, the sender stops it with {@link #ABORT} if reading its source fails
+ */
+public class Streams {
+    private static final System.Logger LOGGER = System.getLogger(Streams.class.getName());
+    /**
+     * The largest amount of data in one chunk
+     */
+    public static final int CHUNK_SIZE = 64 * 1024;
+    /**
+     * The amount of chunks a sender may send before the receiver has read them
+     */
+    public static final int WINDOW = 8;
+    public static final String OPEN = "stream-open";
+    public static final String CREDIT = "stream-credit";
+    public static final String CANCEL = "stream-cancel";
+    public static final String ABORT = "stream-abort";
+    static final int ID_SIZE = Long.BYTES;
+
+    private final Connection connection;
+    private final FrameCipher cipher;
+    private final AtomicLong ids = new AtomicLong();
+    private final Map<Long, OutgoingStream> outgoing = new ConcurrentHashMap<>();
+    private final Map<Long, IncomingStream> incoming = new ConcurrentHashMap<>();
+    private volatile StreamHandler handler;
+
+    /**
+     * @param connection The connection
+     * @param cipher     The cipher the chunks are encrypted with or null without encryption
+     */
+    public Streams(Connection connection, FrameCipher cipher) {
+        this.connection = connection;
+        this.cipher = cipher;
+    }
+
+    /**
+     * @return The handler of this connection or null if the handler of the net instance is used
+     */
+    public StreamHandler getHandler() {
+        return handler;
+    }
+
+    /**
+     * Sets a handler for the streams of this connection only
+     *
+     * @param handler The handler or null to use the handler of the net instance
+     */
+    public void setHandler(StreamHandler handler) {
+        this.handler = handler;
+    }
+
+    /**
+     * @param type The type of a received request
+     * @return If the request belongs to a stream and has to be passed to {@link #control(String, JSONObject)}
+     */
+    public static boolean isControl(String type) {
+        return type.equals(OPEN) || type.equals(CREDIT) || type.equals(CANCEL) || type.equals(ABORT);
+    }
+
+    /**
+     * Starts sending a stream
+     *
+     * @param meta   Data the receiver gets with the stream, for example a file name
+     * @param source The source, it has to be blocking and is closed when the stream ended
+     * @return The stream
+     */
+    public OutgoingStream send(JSONObject meta, ReadableByteChannel source) {
+        OutgoingStream stream = new OutgoingStream(ids.getAndIncrement(), this, source, cipher);
+        outgoing.put(stream.getId(), stream);
+        connection.queueStream(new StreamControl(OPEN, new JSONObject()
+                .put("stream", stream.getId())
+                .put("meta", meta == null ? new JSONObject() : meta)));
+        Thread thread = connection.getNetInstance().threadFactory().newThread(stream::pump);
+        thread.setName("Stream Sender");
+        thread.start();
+        return stream;
+    }
+
+    void queueChunk(StreamChunk chunk) {
+        connection.queueStream(chunk);
+    }
+
+    /**
+     * Handles a received request that belongs to a stream
+     *
+     * @param type The type of the request
+     * @param data The data of the request
+     */
+    public void control(String type, JSONObject data) {
+        long id = data.getLong("stream");
+        switch (type) {
+            case OPEN -> open(id, data.optJSONObject("meta"));
+            case CREDIT -> {
+                OutgoingStream stream = outgoing.get(id);
+                if (stream != null) stream.credit(data.getInt("chunks"));
+            }
+            case CANCEL -> {
+                OutgoingStream stream = outgoing.remove(id);
+                if (stream != null) stream.cancel(new IOException("The receiver cancelled the stream"));
+            }
+            case ABORT -> {
+                IncomingStream stream = incoming.remove(id);
+                if (stream != null) stream.fail(new IOException("The sender aborted the stream: " + data.optString("reason", "")));
+            }
+            default -> throw new IllegalArgumentException("Unknown stream request " + type);
+        }
+    }
+
+    private void open(long id, JSONObject meta) {
+        StreamHandler handler = this.handler != null ? this.handler : connection.getNetInstance().streamHandler();
+        IncomingStream stream = new IncomingStream(id, meta == null ? new JSONObject() : meta, this);
+        if (handler == null) {
+            LOGGER.log(System.Logger.Level.WARNING, () -> "Cancelled stream " + id + ", there is no stream handler");
+            cancel(stream);
+            return;
+        }
+        incoming.put(id, stream);
+        Thread thread = connection.getNetInstance().threadFactory().newThread(() -> {
+            try (stream) {
+                handler.onStream(connection, stream);
+            } catch (IOException | RuntimeException e) {
+                LOGGER.log(System.Logger.Level.WARNING, () -> "Stream handler failed for stream " + id, e);
+            }
+        });
+        thread.setName("Stream Receiver");
+        thread.start();
+    }
+
+    /**
+     * Handles a received chunk
+     *
+     * @param flags   The flags of the frame
+     * @param payload The id of the stream and the data, decrypted
+     * @param owned   If the payload may be kept after this call
+     */
+    public void receive(int flags, ByteBuffer payload, boolean owned) {
+        long id = payload.getLong();
+        IncomingStream stream = incoming.get(id);
+        // chunks of cancelled streams that were already on the way
+        if (stream == null) return;
+        ByteBuffer data;
+        if (owned) {
+            data = payload.slice();
+        } else {
+            data = ByteBuffer.allocate(payload.remaining()).put(payload).flip();
+        }
+        stream.offer(data, (flags & Frames.FLAG_STREAM_END) != 0);
+    }
+
+    void credit(IncomingStream stream, int chunks) {
+        connection.queuePriority(new StreamControl(CREDIT, new JSONObject()
+                .put("stream", stream.getId())
+                .put("chunks", chunks)));
+    }
+
+    void cancel(IncomingStream stream) {
+        incoming.remove(stream.getId());
+        connection.queuePriority(new StreamControl(CANCEL, new JSONObject().put("stream", stream.getId())));
+    }
+
+    void abort(OutgoingStream stream, String reason) {
+        outgoing.remove(stream.getId());
+        connection.queueStream(new StreamControl(ABORT, new JSONObject()
+                .put("stream", stream.getId())
+                .put("reason", reason == null ? "" : reason)));
+    }
+
+    void finished(OutgoingStream stream) {
+        outgoing.remove(stream.getId());
+    }
+
+    void finished(IncomingStream stream) {
+        incoming.remove(stream.getId());
+    }
+
+    /**
+     * Fails all streams because the connection closed
+     */
+    public void close() {
+        IOException cause = new IOException("The connection closed");
+        outgoing.values().forEach(stream -> stream.cancel(cause));
+        incoming.values().forEach(stream -> stream.fail(cause));
+        outgoing.clear();
+        incoming.clear();
+    }
+}
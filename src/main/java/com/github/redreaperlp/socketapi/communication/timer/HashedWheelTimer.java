@@ -0,0 +1,177 @@
+package com.github.redreaperlp.socketapi.communication.timer;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs short tasks after a delay, all connections of a net instance share one timer and one thread
+ * <p>
+ * The wheel is a ring of buckets, every tick the thread moves one bucket further and runs the tasks in it
+ * whose deadline has passed. Scheduling and cancelling is O(1), a tick only touches one bucket no matter how many
+ * tasks are scheduled. Tasks run at most one tick late
+ *
+ * @apiNote Tasks run on the timer thread, so they must not block
+ */
+public class HashedWheelTimer {
+    private static final int INIT = 0;
+    private static final int STARTED = 1;
+    private static final int STOPPED = 2;
+    private static final int MAX_TRANSFERS_PER_TICK = 100_000;
+
+    private final Bucket[] wheel;
+    private final int mask;
+    private final long tickDuration;
+    private final long startTime = System.nanoTime();
+    private final Queue<Timeout> scheduled = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger state = new AtomicInteger(INIT);
+    private final ThreadFactory threadFactory;
+    private Thread thread;
+
+    /**
+     * @param threadFactory The factory creating the timer thread, the thread is started with the first task
+     * @param tickDuration  The time between two ticks
+     * @param unit          The unit of the tick duration
+     * @param wheelSize     The amount of buckets, rounded up to a power of two
+     */
+    public HashedWheelTimer(ThreadFactory threadFactory, long tickDuration, TimeUnit unit, int wheelSize) {
+        this.threadFactory = threadFactory;
+        this.tickDuration = Math.max(unit.toNanos(tickDuration), TimeUnit.MILLISECONDS.toNanos(1));
+        int size = Integer.highestOneBit(Math.max(wheelSize, 2) - 1) << 1;
+        wheel = new Bucket[size];
+        for (int i = 0; i < size; i++) {
+            wheel[i] = new Bucket();
+        }
+        mask = size - 1;
+    }
+
+    /**
+     * Creates a timer with 10ms ticks and 512 buckets
+     *
+     * @param threadFactory The factory creating the timer thread
+     */
+    public HashedWheelTimer(ThreadFactory threadFactory) {
+        this(threadFactory, 10, TimeUnit.MILLISECONDS, 512);
+    }
+
+    /**
+     * Schedules a task
+     *
+     * @param task  The task, it must not block
+     * @param delay The delay
+     * @param unit  The unit of the delay
+     * @return The scheduled task, can be used to cancel it
+     * @throws IllegalStateException if the timer was stopped
+     */
+    public Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+        start();
+        Timeout timeout = new Timeout(task, System.nanoTime() - startTime + unit.toNanos(Math.max(delay, 0)));
+        scheduled.add(timeout);
+        return timeout;
+    }
+
+    private void start() {
+        int current = state.get();
+        if (current == STARTED) return;
+        if (current == STOPPED) throw new IllegalStateException("Timer was stopped");
+        if (state.compareAndSet(INIT, STARTED)) {
+            thread = threadFactory.newThread(this::run);
+            thread.setName("Timeout Wheel");
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    /**
+     * Stops the timer, tasks that did not run yet are dropped
+     */
+    public void stop() {
+        if (state.getAndSet(STOPPED) == STARTED && thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    private void run() {
+        long tick = 0;
+        while (state.get() == STARTED) {
+            long now = waitForTick(tick);
+            if (now < 0) return;
+            transferScheduled(tick);
+            wheel[(int) (tick & mask)].expire(now);
+            tick++;
+        }
+    }
+
+    /**
+     * @return The time since the start or -1 if the timer was stopped while waiting
+     */
+    private long waitForTick(long tick) {
+        long deadline = tickDuration * (tick + 1);
+        while (true) {
+            long now = System.nanoTime() - startTime;
+            long sleep = (deadline - now + 999_999) / 1_000_000;
+            if (sleep <= 0) return now;
+            try {
+                Thread.sleep(sleep);
+            } catch (InterruptedException e) {
+                if (state.get() == STOPPED) return -1;
+            }
+        }
+    }
+
+    private void transferScheduled(long tick) {
+        for (int i = 0; i < MAX_TRANSFERS_PER_TICK; i++) {
+            Timeout timeout = scheduled.poll();
+            if (timeout == null) return;
+            if (timeout.isCancelled()) continue;
+            long ticks = timeout.deadline / tickDuration;
+            timeout.remainingRounds = (ticks - tick) / wheel.length;
+            wheel[(int) (Math.max(ticks, tick) & mask)].add(timeout);
+        }
+    }
+
+    /**
+     * The tasks of one slot of the wheel, only touched by the timer thread
+     */
+    static class Bucket {
+        private Timeout head;
+        private Timeout tail;
+
+        void add(Timeout timeout) {
+            if (head == null) {
+                head = tail = timeout;
+            } else {
+                tail.next = timeout;
+                timeout.prev = tail;
+                tail = timeout;
+            }
+        }
+
+        void expire(long now) {
+            Timeout timeout = head;
+            while (timeout != null) {
+                Timeout next = timeout.next;
+                if (timeout.isCancelled()) {
+                    remove(timeout);
+                } else if (timeout.remainingRounds <= 0 && timeout.deadline <= now) {
+                    remove(timeout);
+                    timeout.expire();
+                } else if (timeout.remainingRounds > 0) {
+                    timeout.remainingRounds--;
+                }
+                timeout = next;
+            }
+        }
+
+        private void remove(Timeout timeout) {
+            if (timeout.prev != null) timeout.prev.next = timeout.next;
+            if (timeout.next != null) timeout.next.prev = timeout.prev;
+            if (timeout == head) head = timeout.next;
+            if (timeout == tail) tail = timeout.prev;
+            timeout.next = null;
+            timeout.prev = null;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.github.redreaperlp.socketapi.communication.timer;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A task scheduled on a {@link HashedWheelTimer}
+ */
+public class Timeout {
+    private static final System.Logger LOGGER = System.getLogger(Timeout.class.getName());
+    private static final int WAITING = 0;
+    private static final int CANCELLED = 1;
+    private static final int EXPIRED = 2;
+
+    private final Runnable task;
+    final long deadline;
+    long remainingRounds;
+    Timeout next;
+    Timeout prev;
+    private final AtomicInteger state = new AtomicInteger(WAITING);
+
+    Timeout(Runnable task, long deadline) {
+        this.task = task;
+        this.deadline = deadline;
+    }
+
+    /**
+     * Cancels the task, it is removed from the wheel when the timer passes it the next time
+     *
+     * @return true if the task was cancelled, false if it already ran or was cancelled before
+     */
+    public boolean cancel() {
+        return state.compareAndSet(WAITING, CANCELLED);
+    }
+
+    public boolean isCancelled() {
+        return state.get() == CANCELLED;
+    }
+
+    public boolean isExpired() {
+        return state.get() == EXPIRED;
+    }
+
+    void expire() {
+        if (!state.compareAndSet(WAITING, EXPIRED)) return;
+        try {
+            task.run();
+        } catch (Throwable t) {
+            LOGGER.log(System.Logger.Level.ERROR, "Timer task failed", t);
+        }
+    }
+}
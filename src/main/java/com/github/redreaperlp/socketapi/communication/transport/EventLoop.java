@@ -0,0 +1,114 @@
+package com.github.redreaperlp.socketapi.communication.transport;
+
+import com.github.redreaperlp.socketapi.communication.Connection;
+
+import java.io.IOException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * A single thread that owns a {@link Selector} and does all reads and writes for the channels registered to it
+ */
+public class EventLoop implements Runnable {
+    private static final System.Logger LOGGER = System.getLogger(EventLoop.class.getName());
+    private final Selector selector;
+    private final Thread thread;
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+    private volatile boolean running = true;
+
+    EventLoop(String name, ThreadFactory threadFactory) throws IOException {
+        selector = Selector.open();
+        thread = threadFactory.newThread(this);
+        thread.setName(name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Registers a channel to this loop and attaches it to the connection
+     *
+     * @param socketChannel The channel, it has to be in non-blocking mode
+     * @param connection    The connection that resolves the received requests
+     * @return The created channel
+     */
+    public NioChannel register(SocketChannel socketChannel, Connection connection) {
+        NioChannel channel = new NioChannel(socketChannel, connection, this);
+        connection.attach(channel);
+        execute(() -> {
+            try {
+                channel.setKey(socketChannel.register(selector, SelectionKey.OP_READ, channel));
+                channel.flush();
+            } catch (ClosedChannelException e) {
+                channel.close();
+            }
+        });
+        return channel;
+    }
+
+    /**
+     * Runs a task on the loop thread
+     *
+     * @param task The task
+     */
+    public void execute(Runnable task) {
+        tasks.add(task);
+        if (Thread.currentThread() != thread) selector.wakeup();
+    }
+
+    /**
+     * @return true if the calling thread is this loops thread
+     */
+    public boolean inLoop() {
+        return Thread.currentThread() == thread;
+    }
+
+    @Override
+    public void run() {
+        while (running) {
+            try {
+                selector.select();
+            } catch (IOException e) {
+                LOGGER.log(System.Logger.Level.ERROR, () -> "Event loop " + thread.getName() + " failed", e);
+                break;
+            }
+            Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+            while (keys.hasNext()) {
+                SelectionKey key = keys.next();
+                keys.remove();
+                NioChannel channel = (NioChannel) key.attachment();
+                if (!key.isValid()) {
+                    channel.close();
+                    continue;
+                }
+                if (key.isReadable()) channel.read();
+                if (key.isValid() && key.isWritable()) channel.flush();
+            }
+            Runnable task;
+            while ((task = tasks.poll()) != null) {
+                try {
+                    task.run();
+                } catch (RuntimeException e) {
+                    LOGGER.log(System.Logger.Level.ERROR, () -> "Task of event loop " + thread.getName() + " failed", e);
+                }
+            }
+        }
+        for (SelectionKey key : selector.keys()) {
+            ((NioChannel) key.attachment()).close();
+        }
+        try {
+            selector.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    void shutdown() {
+        running = false;
+        selector.wakeup();
+    }
+}
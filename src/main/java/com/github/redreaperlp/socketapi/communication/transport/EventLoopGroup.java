@@ -0,0 +1,57 @@
+package com.github.redreaperlp.socketapi.communication.transport;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A fixed amount of {@link EventLoop}s, connections are spread over them round robin
+ */
+public class EventLoopGroup {
+    private final EventLoop[] loops;
+    private final AtomicInteger next = new AtomicInteger();
+
+    /**
+     * Creates and starts the event loops
+     *
+     * @param threads       The amount of event loops (each runs on its own thread)
+     * @param name          The name prefix of the threads
+     * @param threadFactory The factory creating the threads of the loops
+     */
+    public EventLoopGroup(int threads, String name, ThreadFactory threadFactory) {
+        if (threads < 1) throw new IllegalArgumentException("At least one event loop is required");
+        loops = new EventLoop[threads];
+        try {
+            for (int i = 0; i < threads; i++) {
+                loops[i] = new EventLoop(name + " " + i, threadFactory);
+            }
+        } catch (IOException e) {
+            shutdown();
+            throw new RuntimeException(e);
+        }
+    }
+
+    public EventLoopGroup(int threads, ThreadFactory threadFactory) {
+        this(threads, "Event Loop", threadFactory);
+    }
+
+    public EventLoopGroup(int threads) {
+        this(threads, Thread::new);
+    }
+
+    /**
+     * @return The event loop the next connection should be registered to
+     */
+    public EventLoop next() {
+        return loops[Math.floorMod(next.getAndIncrement(), loops.length)];
+    }
+
+    /**
+     * Stops all event loops, the channels registered to them are closed
+     */
+    public void shutdown() {
+        for (EventLoop loop : loops) {
+            if (loop != null) loop.shutdown();
+        }
+    }
+}
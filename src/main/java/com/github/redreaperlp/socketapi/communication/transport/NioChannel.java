@@ -0,0 +1,172 @@
+package com.github.redreaperlp.socketapi.communication.transport;
+
+import com.github.redreaperlp.socketapi.communication.Connection;
+import com.github.redreaperlp.socketapi.communication.protocol.FrameDecoder;
+import com.github.redreaperlp.socketapi.communication.request.Request;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * The state of one connection on an {@link EventLoop}, all methods except {@link #requestFlush()},
+ * {@link #closeAfterFlush()} and {@link #close()} have to be called on the loop thread
+ */
+public class NioChannel {
+    private static final System.Logger LOGGER = System.getLogger(NioChannel.class.getName());
+    private final SocketChannel socketChannel;
+    private final EventLoop loop;
+    private volatile Connection connection;
+    private volatile SelectionKey key;
+    private final FrameDecoder decoder = new FrameDecoder();
+    private final Supplier<Connection> target = this::getConnection;
+    private final ArrayDeque<ByteBuffer> writeQueue = new ArrayDeque<>();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean(false);
+    private final AtomicBoolean closed = new AtomicBoolean(false);
+    private volatile boolean closeAfterFlush = false;
+
+    NioChannel(SocketChannel socketChannel, Connection connection, EventLoop loop) {
+        this.socketChannel = socketChannel;
+        this.connection = connection;
+        this.loop = loop;
+    }
+
+    void setKey(SelectionKey key) {
+        this.key = key;
+    }
+
+    /**
+     * Moves this channel to another connection, used when the connection is replaced during the registration
+     *
+     * @param connection The new connection
+     */
+    public void bind(Connection connection) {
+        this.connection = connection;
+        connection.attach(this);
+    }
+
+    public Connection getConnection() {
+        return connection;
+    }
+
+    public SocketChannel getSocketChannel() {
+        return socketChannel;
+    }
+
+    /**
+     * @return If the calling thread is the thread of the event loop of this channel
+     */
+    public boolean inLoop() {
+        return loop.inLoop();
+    }
+
+    /**
+     * Schedules a flush of the connections request queue on the loop thread
+     */
+    public void requestFlush() {
+        if (flushScheduled.compareAndSet(false, true)) {
+            loop.execute(this::flush);
+        }
+    }
+
+    /**
+     * Closes the channel as soon as everything that was queued has been written
+     */
+    public void closeAfterFlush() {
+        closeAfterFlush = true;
+        requestFlush();
+    }
+
+    /**
+     * Reads everything available and resolves every complete frame
+     *
+     * @apiNote A frame that can not be resolved closes only this connection, the loop keeps serving the others
+     */
+    void read() {
+        try {
+            if (decoder.readFrom(socketChannel) == -1) {
+                fail();
+                return;
+            }
+            decoder.decode(target);
+        } catch (IOException e) {
+            fail();
+        } catch (RuntimeException e) {
+            LOGGER.log(System.Logger.Level.WARNING, "Closing the connection after a frame that could not be resolved", e);
+            fail();
+        }
+    }
+
+    /**
+     * Encodes all queued requests and writes as much as the socket accepts
+     *
+     * @apiNote A request that can not be encoded closes only this connection, the loop keeps serving the others
+     */
+    void flush() {
+        try {
+            write();
+        } catch (RuntimeException e) {
+            LOGGER.log(System.Logger.Level.WARNING, "Closing the connection after a request that could not be written", e);
+            fail();
+        }
+    }
+
+    private void write() {
+        flushScheduled.set(false);
+        if (closed.get() || key == null) return;
+        Request request;
+        long encoded = 0;
+        while ((request = connection.pollRequest()) != null) {
+            ByteBuffer frame = connection.encodeFrame(request);
+            encoded += frame.remaining();
+            writeQueue.add(frame);
+        }
+        long written = 0;
+        try {
+            while (!writeQueue.isEmpty()) {
+                written += socketChannel.write(writeQueue.toArray(new ByteBuffer[0]));
+                while (!writeQueue.isEmpty() && !writeQueue.peek().hasRemaining()) {
+                    writeQueue.poll();
+                }
+                if (!writeQueue.isEmpty()) break;
+            }
+        } catch (IOException e) {
+            fail();
+            return;
+        } finally {
+            if (encoded != written) connection.updatePendingBytes(encoded - written);
+        }
+        if (writeQueue.isEmpty()) {
+            if (key.isValid()) key.interestOps(SelectionKey.OP_READ);
+            if (closeAfterFlush) close();
+        } else if (key.isValid()) {
+            key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+        }
+    }
+
+    private void fail() {
+        if (closed.get()) return;
+        close();
+        connection.connectionError();
+    }
+
+    /**
+     * Closes the socket channel and removes it from the selector
+     */
+    public void close() {
+        if (!closed.compareAndSet(false, true)) return;
+        if (key != null) key.cancel();
+        try {
+            socketChannel.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    public boolean isClosed() {
+        return closed.get();
+    }
+}
@@ -1,6 +1,16 @@
 package com.github.redreaperlp.socketapi.ns;
 
 import com.github.redreaperlp.socketapi.communication.Connection;
+import com.github.redreaperlp.socketapi.communication.codec.Codec;
+import com.github.redreaperlp.socketapi.communication.compression.Compressor;
+import com.github.redreaperlp.socketapi.communication.compression.DeflateCompressor;
+import com.github.redreaperlp.socketapi.communication.dispatch.DispatchMode;
+import com.github.redreaperlp.socketapi.communication.dispatch.Dispatcher;
+import com.github.redreaperlp.socketapi.communication.dispatch.RejectionPolicy;
+import com.github.redreaperlp.socketapi.communication.metrics.Metrics;
+import com.github.redreaperlp.socketapi.communication.queue.FlowControl;
+import com.github.redreaperlp.socketapi.communication.stream.StreamHandler;
+import com.github.redreaperlp.socketapi.communication.timer.HashedWheelTimer;
 
 import javax.crypto.BadPaddingException;
 import javax.crypto.Cipher;
@@ -11,6 +21,8 @@ import java.security.InvalidKeyException;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ThreadFactory;
 
 public interface NetInstance {
 
@@ -29,6 +41,277 @@ public interface NetInstance {
         }
     }
 
+    /**
+     * @return The settings and shared resources this instance and its connections use, the configuration methods
+     * below read and write them
+     */
+    NetOptions options();
+
+    /**
+     * @return The factory used for all threads of this instance and its connections
+     */
+    default ThreadFactory threadFactory() {
+        return options().getThreadFactory();
+    }
+
+    /**
+     * Sets the factory used for all threads of this instance and its connections
+     *
+     * @param threadFactory The thread factory
+     * @apiNote Only affects threads that are started afterwards
+     */
+    default void setThreadFactory(ThreadFactory threadFactory) {
+        options().setThreadFactory(threadFactory);
+    }
+
+    /**
+     * Runs connections on virtual threads, so a connection no longer costs multiple platform threads
+     *
+     * @throws UnsupportedOperationException if the running Java version has no virtual threads (Java 21+)
+     */
+    default void useVirtualThreads() {
+        setThreadFactory(ThreadFactories.virtual());
+    }
+
+    /**
+     * @return The codec this instance prefers, it is only used if the other side uses the same
+     */
+    default Codec codec() {
+        return options().getCodec();
+    }
+
+    /**
+     * Sets the codec this instance prefers, json is used with every peer that does not use the same codec
+     *
+     * @param codec The codec, for example {@link com.github.redreaperlp.socketapi.communication.codec.BinaryCodec#INSTANCE}
+     * @apiNote Only affects connections that are registered afterwards
+     */
+    default void setCodec(Codec codec) {
+        options().setCodec(codec);
+    }
+
+    /**
+     * @return The compressor this instance prefers or null if it does not compress
+     */
+    default Compressor compressor() {
+        return options().getCompressor();
+    }
+
+    /**
+     * Sets the compressor this instance prefers, frames are only compressed if the other side uses the same
+     *
+     * @param compressor The compressor or null to disable compression
+     * @apiNote Only affects connections that are registered afterwards
+     */
+    default void setCompressor(Compressor compressor) {
+        options().setCompressor(compressor);
+    }
+
+    /**
+     * @return The size in bytes an encoded request needs to have to be compressed
+     */
+    default int compressionThreshold() {
+        return options().getCompressionThreshold();
+    }
+
+    default void setCompressionThreshold(int threshold) {
+        options().setCompressionThreshold(threshold);
+    }
+
+    /**
+     * Compresses every request larger than the threshold with {@link DeflateCompressor}
+     *
+     * @param threshold The size in bytes an encoded request needs to have to be compressed
+     * @apiNote The other side has to enable compression too, otherwise nothing is compressed
+     */
+    default void useCompression(int threshold) {
+        setCompressor(DeflateCompressor.INSTANCE);
+        setCompressionThreshold(threshold);
+    }
+
+    /**
+     * @return The dispatcher running the handlers of received requests, {@link Dispatcher#INLINE} by default
+     */
+    default Dispatcher dispatcher() {
+        return options().getDispatcher();
+    }
+
+    /**
+     * Sets the dispatcher running the handlers of received requests, the previous one is shut down
+     *
+     * @param dispatcher The dispatcher
+     */
+    default void setDispatcher(Dispatcher dispatcher) {
+        options().setDispatcher(dispatcher);
+    }
+
+    /**
+     * Runs the handlers of received requests on a pool, so a slow handler does not stop the connection from reading
+     *
+     * @param mode      Where the handlers run
+     * @param threads   The amount of pool threads
+     * @param maxQueued The amount of requests that may wait, in total for {@link DispatchMode#POOLED},
+     *                  per connection for {@link DispatchMode#ORDERED}
+     * @param policy    What happens with requests if too many are waiting
+     */
+    default void useDispatcher(DispatchMode mode, int threads, int maxQueued, RejectionPolicy policy) {
+        setDispatcher(new Dispatcher(mode, threads, maxQueued, policy, threadFactory()));
+    }
+
+    /**
+     * @return The metrics of all connections of this instance, see {@link Connection#getMetrics()} for a single one
+     */
+    default Metrics metrics() {
+        return options().getMetrics();
+    }
+
+    /**
+     * Exports the metrics of this instance through JMX
+     *
+     * @param name The name shown in JMX, has to be unique in this process
+     * @apiNote The metrics are removed from JMX when the instance is stopped
+     */
+    default void exportMetrics(String name) {
+        metrics().register(name);
+    }
+
+    /**
+     * @return The handler of the streams the other side of a connection sends or null if streams are cancelled
+     */
+    default StreamHandler streamHandler() {
+        return options().getStreamHandler();
+    }
+
+    /**
+     * Sets the handler of the streams the other side of a connection sends, see {@link Connection#stream}
+     *
+     * @param handler The handler or null to cancel all streams
+     */
+    default void setStreamHandler(StreamHandler handler) {
+        options().setStreamHandler(handler);
+    }
+
+    /**
+     * @return The amount of requests the other side of a connection may send without a response at the same time,
+     * 0 if unlimited
+     */
+    default int inFlightWindow() {
+        return options().getInFlightWindow();
+    }
+
+    /**
+     * Limits how many requests the other side of a connection may send without a response at the same time,
+     * further requests wait on the sending side until a response arrives
+     *
+     * @param window The window, 0 for unlimited
+     * @apiNote Only affects connections that are registered afterwards, use {@link Connection#grantWindow(int)} for
+     * connections that already exist
+     */
+    default void setInFlightWindow(int window) {
+        options().setInFlightWindow(window);
+    }
+
+    /**
+     * @return The weights of the logical channels every connection opens, by the name of the channel
+     */
+    default Map<String, Integer> channelWeights() {
+        return options().getChannelWeights();
+    }
+
+    /**
+     * Sets the weight of a logical channel that every connection opens, channels without a weight get
+     * {@link com.github.redreaperlp.socketapi.communication.queue.LogicalChannel#DEFAULT_WEIGHT}
+     *
+     * @param name   The name of the channel, for example
+     *               {@link com.github.redreaperlp.socketapi.communication.queue.LogicalChannel#STREAMS}
+     * @param weight The amount of requests written from the channel before the next channel gets its turn
+     * @apiNote Only affects connections that are created afterwards, use {@link Connection#openChannel(String, int)}
+     * for connections that already exist
+     */
+    default void setChannelWeight(String name, int weight) {
+        options().setChannelWeight(name, weight);
+    }
+
+    /**
+     * @return The flow control of all connections that do not have their own, {@link FlowControl#UNBOUNDED} by default
+     */
+    default FlowControl flowControl() {
+        return options().getFlowControl();
+    }
+
+    /**
+     * Sets the flow control of all connections that do not have their own
+     *
+     * @param flowControl The flow control
+     * @apiNote Can be overridden per connection with {@link Connection#setFlowControl(FlowControl)}
+     */
+    default void setFlowControl(FlowControl flowControl) {
+        options().setFlowControl(flowControl);
+    }
+
+    /**
+     * @return The timer all connections of this instance schedule their request timeouts on
+     */
+    default HashedWheelTimer timer() {
+        return options().getTimer();
+    }
+
+    /**
+     * @return The time in milliseconds without received frames after which the keepalive of a connection sends a ping,
+     * 100 by default
+     */
+    default long pingInterval() {
+        return options().getPingInterval();
+    }
+
+    /**
+     * Sets the time without received frames after which the keepalive of a connection sends a ping,
+     * see {@link Connection#ping()}
+     *
+     * @param pingInterval The time in milliseconds
+     * @apiNote Only affects connections that are created afterwards, a reconnecting client keeps it
+     */
+    default void setPingInterval(long pingInterval) {
+        options().setPingInterval(pingInterval);
+    }
+
+    /**
+     * @return The time in milliseconds the keepalive waits at most between two pings on an idle connection,
+     * 10000 by default
+     */
+    default long maxPingInterval() {
+        return options().getMaxPingInterval();
+    }
+
+    /**
+     * Sets the time the keepalive waits at most between two pings on an idle connection
+     *
+     * @param maxPingInterval The time in milliseconds
+     * @apiNote Only affects connections that are created afterwards, a reconnecting client keeps it
+     */
+    default void setMaxPingInterval(long maxPingInterval) {
+        options().setMaxPingInterval(maxPingInterval);
+    }
+
+    /**
+     * @return The time in milliseconds after which a request without a response fails, 0 if it is three times the
+     * ping interval
+     */
+    default long requestTimeout() {
+        return options().getRequestTimeout();
+    }
+
+    /**
+     * Sets the time after which a request without a response fails
+     *
+     * @param requestTimeout The timeout in milliseconds, 0 to use three times the ping interval
+     * @apiNote Only affects connections that are created afterwards, a reconnecting client keeps it.
+     * Can be overridden per request with {@link com.github.redreaperlp.socketapi.communication.request.special.RequestPromising#setTimeout(long)}
+     */
+    default void setRequestTimeout(long requestTimeout) {
+        options().setRequestTimeout(requestTimeout);
+    }
+
     default boolean usesEncrytion() {
         return encryptionKey() != null;
     }
@@ -58,6 +341,7 @@ public interface NetInstance {
             throw new RuntimeException(e);
         }
     }
+
     void stop();
     boolean stopped();
 }
\ No newline at end of file
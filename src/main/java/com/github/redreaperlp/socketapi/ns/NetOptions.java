@@ -0,0 +1,196 @@
+package com.github.redreaperlp.socketapi.ns;
+
+import com.github.redreaperlp.socketapi.communication.codec.Codec;
+import com.github.redreaperlp.socketapi.communication.codec.JsonCodec;
+import com.github.redreaperlp.socketapi.communication.compression.Compressor;
+import com.github.redreaperlp.socketapi.communication.dispatch.Dispatcher;
+import com.github.redreaperlp.socketapi.communication.metrics.Metrics;
+import com.github.redreaperlp.socketapi.communication.queue.FlowControl;
+import com.github.redreaperlp.socketapi.communication.stream.StreamHandler;
+import com.github.redreaperlp.socketapi.communication.timer.HashedWheelTimer;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadFactory;
+import java.util.function.IntSupplier;
+
+/**
+ * The settings and shared resources of a {@link NetInstance} that its connections use, the configuration methods of
+ * {@link NetInstance} read and write them here
+ *
+ * @apiNote Settings that are negotiated or applied when a connection is created only affect connections created
+ * afterwards, see the setters of {@link NetInstance}
+ */
+public class NetOptions {
+    private ThreadFactory threadFactory = ThreadFactories.platform();
+    private Codec codec = JsonCodec.INSTANCE;
+    private Compressor compressor;
+    private int compressionThreshold = 1024;
+    private Dispatcher dispatcher = Dispatcher.INLINE;
+    private FlowControl flowControl = FlowControl.UNBOUNDED;
+    private int inFlightWindow = 0;
+    private final Map<String, Integer> channelWeights = new ConcurrentHashMap<>();
+    private StreamHandler streamHandler;
+    private long pingInterval = 100;
+    private long maxPingInterval = 10_000;
+    private long requestTimeout = 0;
+    private final HashedWheelTimer timer = new HashedWheelTimer(r -> threadFactory.newThread(r));
+    private final Metrics metrics;
+
+    /**
+     * Creates options whose metrics report no queued requests and no pending responses
+     */
+    public NetOptions() {
+        this(() -> 0, () -> 0);
+    }
+
+    /**
+     * @param queuedRequests   The amount of requests of all connections waiting to be written
+     * @param pendingResponses The amount of requests of all connections waiting for their response
+     */
+    public NetOptions(IntSupplier queuedRequests, IntSupplier pendingResponses) {
+        metrics = new Metrics(null, queuedRequests, pendingResponses);
+    }
+
+    public ThreadFactory getThreadFactory() {
+        return threadFactory;
+    }
+
+    public void setThreadFactory(ThreadFactory threadFactory) {
+        this.threadFactory = threadFactory;
+    }
+
+    public Codec getCodec() {
+        return codec;
+    }
+
+    public void setCodec(Codec codec) {
+        this.codec = codec;
+    }
+
+    public Compressor getCompressor() {
+        return compressor;
+    }
+
+    public void setCompressor(Compressor compressor) {
+        this.compressor = compressor;
+    }
+
+    public int getCompressionThreshold() {
+        return compressionThreshold;
+    }
+
+    public void setCompressionThreshold(int compressionThreshold) {
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    public Dispatcher getDispatcher() {
+        return dispatcher;
+    }
+
+    /**
+     * @param dispatcher The dispatcher, the previous one is shut down
+     */
+    public void setDispatcher(Dispatcher dispatcher) {
+        this.dispatcher.shutdown();
+        this.dispatcher = dispatcher;
+    }
+
+    public FlowControl getFlowControl() {
+        return flowControl;
+    }
+
+    public void setFlowControl(FlowControl flowControl) {
+        this.flowControl = flowControl;
+    }
+
+    public int getInFlightWindow() {
+        return inFlightWindow;
+    }
+
+    public void setInFlightWindow(int inFlightWindow) {
+        this.inFlightWindow = inFlightWindow;
+    }
+
+    /**
+     * @return The weights of the logical channels every connection opens, by the name of the channel
+     */
+    public Map<String, Integer> getChannelWeights() {
+        return Collections.unmodifiableMap(channelWeights);
+    }
+
+    /**
+     * @param name   The name of the channel
+     * @param weight The weight, at least 1
+     */
+    public void setChannelWeight(String name, int weight) {
+        if (weight < 1) throw new IllegalArgumentException("The weight has to be at least 1");
+        channelWeights.put(name, weight);
+    }
+
+    public StreamHandler getStreamHandler() {
+        return streamHandler;
+    }
+
+    public void setStreamHandler(StreamHandler streamHandler) {
+        this.streamHandler = streamHandler;
+    }
+
+    public long getPingInterval() {
+        return pingInterval;
+    }
+
+    /**
+     * @param pingInterval The time in milliseconds, at least 1
+     */
+    public void setPingInterval(long pingInterval) {
+        if (pingInterval < 1) throw new IllegalArgumentException("The ping interval has to be at least 1");
+        this.pingInterval = pingInterval;
+    }
+
+    public long getMaxPingInterval() {
+        return maxPingInterval;
+    }
+
+    /**
+     * @param maxPingInterval The time in milliseconds, at least 1
+     */
+    public void setMaxPingInterval(long maxPingInterval) {
+        if (maxPingInterval < 1) throw new IllegalArgumentException("The maximum ping interval has to be at least 1");
+        this.maxPingInterval = maxPingInterval;
+    }
+
+    public long getRequestTimeout() {
+        return requestTimeout;
+    }
+
+    /**
+     * @param requestTimeout The timeout in milliseconds, 0 to use three times the ping interval
+     */
+    public void setRequestTimeout(long requestTimeout) {
+        if (requestTimeout < 0) throw new IllegalArgumentException("The request timeout can not be negative");
+        this.requestTimeout = requestTimeout;
+    }
+
+    /**
+     * @return The timer the connections schedule their timeouts and keepalives on, its thread is created by the
+     * thread factory
+     */
+    public HashedWheelTimer getTimer() {
+        return timer;
+    }
+
+    public Metrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Stops the timer and the dispatcher and removes the metrics from JMX, called when the instance stops
+     */
+    public void shutdown() {
+        timer.stop();
+        dispatcher.shutdown();
+        metrics.unregister();
+    }
+}
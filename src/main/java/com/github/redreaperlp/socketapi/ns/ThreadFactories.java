@@ -0,0 +1,32 @@
+package com.github.redreaperlp.socketapi.ns;
+
+import java.util.concurrent.ThreadFactory;
+
+public class ThreadFactories {
+    private ThreadFactories() {
+    }
+
+    /**
+     * @return A factory creating normal platform threads
+     */
+    public static ThreadFactory platform() {
+        return Thread::new;
+    }
+
+    /**
+     * Creates a factory for virtual threads
+     *
+     * @return A factory creating virtual threads
+     * @throws UnsupportedOperationException if the running Java version has no virtual threads (Java 21+)
+     * @apiNote The library is compiled against older Java versions, so the factory is looked up at runtime
+     */
+    public static ThreadFactory virtual() {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            // the builder class itself is not public, so the method is looked up on its interface
+            return (ThreadFactory) Class.forName("java.lang.Thread$Builder").getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException e) {
+            throw new UnsupportedOperationException("Virtual threads require Java 21 or newer", e);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.github.redreaperlp.socketapi.ns.client;
+
+/**
+ * How a {@link SocketClientPool} picks the connection of a request
+ */
+public enum RoutingStrategy {
+    /**
+     * The connected members take turns
+     */
+    ROUND_ROBIN,
+    /**
+     * The connected member with the fewest requests waiting for their response, ties are taken in turns
+     */
+    LEAST_OUTSTANDING
+}
@@ -8,35 +8,44 @@ import com.github.redreaperlp.socketapi.communication.handler.IRequestHandler;
 import com.github.redreaperlp.socketapi.communication.request.Request;
 import com.github.redreaperlp.socketapi.communication.request.requests.RequestRegister;
 import com.github.redreaperlp.socketapi.communication.request.requests.RequestStop;
-import com.github.redreaperlp.socketapi.communication.response.Response;
+import com.github.redreaperlp.socketapi.communication.request.special.RequestBatch;
+import com.github.redreaperlp.socketapi.communication.stream.OutgoingStream;
 import com.github.redreaperlp.socketapi.ns.NetInstance;
+import com.github.redreaperlp.socketapi.ns.NetOptions;
 import org.json.JSONObject;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.Socket;
+import java.nio.channels.ReadableByteChannel;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class SocketClient implements NetInstance {
+    private static final System.Logger LOGGER = System.getLogger(SocketClient.class.getName());
     private final int port;
     private final String ip;
-    private Connection con;
+    private volatile Connection con;
     private final Object connectionErrorLock = new Object();
-    private final Thread connectionErrorThread;
+    private volatile Thread connectionErrorThread;
 
     private String connectionIdentifier;
-    private boolean stopped = false;
+    private volatile boolean stopped = false;
+    private volatile boolean connected = false;
+    private volatile boolean autoReconnect = true;
+    private final AtomicInteger reconnects = new AtomicInteger();
 
     private final Map<Class<? extends Request>, IReqHandler> handlers = new HashMap<>();
 
     private byte[] encryptionKey;
+    private final NetOptions options = new NetOptions(
+            () -> con == null ? 0 : con.getQueuedRequests(),
+            () -> con == null ? 0 : con.getPendingResponses().size());
 
     public SocketClient(String ip, int port) {
         this.ip = ip;
         this.port = port;
-        connectionErrorThread = new Thread(this::onConnectionError);
-        connectionErrorThread.setName("ConnectionErrorThread");
-        connectionErrorThread.start();
 
         handlers.put(RequestRegister.class, (IPromisingRequestHandler) (req, data) -> {
             if (req.getManager().getNetInstance() instanceof SocketClient client) {
@@ -57,12 +66,12 @@ public class SocketClient implements NetInstance {
     }
 
     public boolean start() {
+        startConnectionErrorThread();
         try {
             Socket socket = new Socket(ip, port);
             con = new ConnectionImpl(socket, this);
             con.incoming();
             con.outgoing();
-            con.timeout();
 
             RequestRegister req = con.getRequestManager().getRequest(RequestRegister.class);
             req.setConnectionIdentifier(connectionIdentifier);
@@ -72,14 +81,25 @@ public class SocketClient implements NetInstance {
             }
             registerHandlers();
             con.ping();
+            connected = true;
         } catch (IOException e) {
-            System.out.println("Failed to connect to " + ip + ":" + port);
-            System.out.println("Reason: " + e.getMessage());
+            LOGGER.log(System.Logger.Level.WARNING, () -> "Failed to connect to " + ip + ":" + port + ": " + e.getMessage());
             return false;
         }
         return true;
     }
 
+    /**
+     * Starts the thread that reconnects after a connection error, it is started with the first connection attempt,
+     * so it is created by the configured {@link #threadFactory()}
+     */
+    private synchronized void startConnectionErrorThread() {
+        if (connectionErrorThread != null) return;
+        connectionErrorThread = threadFactory().newThread(this::onConnectionError);
+        connectionErrorThread.setName("ConnectionErrorThread");
+        connectionErrorThread.start();
+    }
+
     private Object getConnectionErrorLock() {
         return connectionErrorLock;
     }
@@ -90,33 +110,72 @@ public class SocketClient implements NetInstance {
                 try {
                     connectionErrorLock.wait();
                 } catch (InterruptedException e) {
-                    System.out.println("ConnectionErrorThread interrupted, stopping...");
+                    LOGGER.log(System.Logger.Level.DEBUG, "ConnectionErrorThread interrupted, stopping...");
                     return;
                 }
             }
+            // the connection also closes when the client is stopped
+            if (stopped) return;
             con.end();
-            System.out.println("Connection error occurred, reconnecting...");
-            while (!start()) {
-                System.out.println("Failed to reconnect, retrying in 1 second...");
+            if (!autoReconnect) continue;
+            LOGGER.log(System.Logger.Level.INFO, "Connection error occurred, reconnecting...");
+            while (!stopped && !start()) {
+                LOGGER.log(System.Logger.Level.INFO, "Failed to reconnect, retrying in 1 second...");
                 try {
                     Thread.sleep(1000);
                 } catch (InterruptedException e) {
-                    System.out.println("ConnectionErrorThread interrupted, stopping...");
+                    LOGGER.log(System.Logger.Level.DEBUG, "ConnectionErrorThread interrupted, stopping...");
                     return;
                 }
             }
+            if (!stopped) reconnects.incrementAndGet();
         }
     }
 
+    /**
+     * @return How often the client connected again after its connection broke
+     */
+    public int getReconnects() {
+        return reconnects.get();
+    }
+
+    /**
+     * @return If the client is registered at the server and its connection did not break since
+     */
+    public boolean isConnected() {
+        return connected;
+    }
+
+    /**
+     * @return The amount of sent requests that wait for their response, 0 if the client is not connected
+     */
+    public int getOutstandingRequests() {
+        Connection con = this.con;
+        return con == null ? 0 : con.getPendingResponses().size();
+    }
+
+    /**
+     * Sets if the client connects again after its connection broke, enabled by default
+     *
+     * @param autoReconnect false to leave the client disconnected, for example if a {@link SocketClientPool}
+     *                      replaces it
+     */
+    public void setAutoReconnect(boolean autoReconnect) {
+        this.autoReconnect = autoReconnect;
+    }
+
     /**
      * Stops the client and sends a stop request to the server, when the server responds, the connection is closed
      */
     @Override
     public void stop() {
-        Response res = getRequest(RequestStop.class).complete();
+        // a broken connection can not deliver the stop request, it would only wait for its timeout
+        if (connected) getRequest(RequestStop.class).complete();
         stopped = true;
+        connected = false;
         if (connectionErrorThread != null && connectionErrorThread.isAlive()) connectionErrorThread.interrupt();
-        con.end();
+        if (con != null) con.end();
+        options.shutdown();
     }
 
     /**
@@ -167,17 +226,55 @@ public class SocketClient implements NetInstance {
         return con.getRequestManager().getRequest(name, id);
     }
 
+    /**
+     * Creates a batch, the requests added to it are sent in one frame
+     *
+     * @return The batch
+     * @apiNote The requests added to the batch have to be created by this client
+     */
+    public RequestBatch batch() {
+        return con.getRequestManager().batch();
+    }
+
+    /**
+     * Sends a stream to the server, see {@link Connection#stream(JSONObject, ReadableByteChannel)}
+     *
+     * @param meta   Data the server gets with the stream, for example a file name, or null
+     * @param source The source, it has to be blocking and is closed when the stream ended
+     * @return The stream, its future completes when the last chunk was written
+     */
+    public OutgoingStream stream(JSONObject meta, ReadableByteChannel source) {
+        return con.stream(meta, source);
+    }
+
+    /**
+     * Sends a stream to the server, see {@link Connection#stream(JSONObject, InputStream)}
+     *
+     * @param meta   Data the server gets with the stream, or null
+     * @param source The source, it is closed when the stream ended
+     * @return The stream, its future completes when the last chunk was written
+     */
+    public OutgoingStream stream(JSONObject meta, InputStream source) {
+        return con.stream(meta, source);
+    }
+
     public void registerHandlers() {
         handlers.forEach((clazz, handler) -> con.getRequestHandler().registerHandler(clazz, handler));
     }
 
     @Override
     public void notifyConnectionClosed(Connection con) {
+        if (con == this.con) connected = false;
         synchronized (connectionErrorLock) {
             connectionErrorLock.notifyAll();
         }
     }
 
+    @Override
+    public NetOptions options() {
+        return options;
+    }
+
     @Override
     public byte[] encryptionKey() {
         return encryptionKey;
@@ -0,0 +1,261 @@
+package com.github.redreaperlp.socketapi.ns.client;
+
+import com.github.redreaperlp.socketapi.communication.request.Request;
+import com.github.redreaperlp.socketapi.communication.request.special.RequestBatch;
+import com.github.redreaperlp.socketapi.ns.ThreadFactories;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Keeps several connections to one or more servers and spreads the requests over them
+ * <p>
+ * Every member is a {@link SocketClient} with its own connection and writer. Requests are only routed to members
+ * that are connected, a member whose connection broke is replaced in the background by a new client, connected to
+ * the next endpoint, so callers never wait for a reconnect
+ *
+ * @apiNote A request is bound to the member it was created by, requests that wait for their response when the
+ * connection of their member breaks fail with 408
+ */
+public class SocketClientPool {
+    private static final System.Logger LOGGER = System.getLogger(SocketClientPool.class.getName());
+    private static final long CHECK_INTERVAL = TimeUnit.MILLISECONDS.toNanos(250);
+
+    private final List<InetSocketAddress> endpoints;
+    private final Consumer<SocketClient> setup;
+    private final RoutingStrategy strategy;
+    private final AtomicReferenceArray<SocketClient> members;
+    private final AtomicBoolean[] replacing;
+    private final int[] endpointOf;
+    private final AtomicInteger next = new AtomicInteger();
+    private final AtomicInteger replacements = new AtomicInteger();
+    private ThreadFactory threadFactory = ThreadFactories.platform();
+    private volatile boolean stopped = false;
+    private Thread maintainer;
+
+    /**
+     * @param size      The amount of connections
+     * @param endpoints The servers, the members are spread over them and a replaced member connects to the next one
+     * @param strategy  How the member of a request is picked
+     * @param setup     Configures every member before it connects, for example its encryption and handlers
+     */
+    public SocketClientPool(int size, List<InetSocketAddress> endpoints, RoutingStrategy strategy, Consumer<SocketClient> setup) {
+        if (size < 1) throw new IllegalArgumentException("A pool needs at least one connection");
+        if (endpoints.isEmpty()) throw new IllegalArgumentException("A pool needs at least one endpoint");
+        this.endpoints = List.copyOf(endpoints);
+        this.strategy = strategy;
+        this.setup = setup;
+        this.members = new AtomicReferenceArray<>(size);
+        this.replacing = new AtomicBoolean[size];
+        this.endpointOf = new int[size];
+        for (int i = 0; i < size; i++) {
+            replacing[i] = new AtomicBoolean();
+            endpointOf[i] = i % this.endpoints.size();
+        }
+    }
+
+    /**
+     * Creates a pool with connections to one server
+     *
+     * @param ip    The ip of the server
+     * @param port  The port of the server
+     * @param size  The amount of connections
+     * @param setup Configures every member before it connects
+     */
+    public SocketClientPool(String ip, int port, int size, Consumer<SocketClient> setup) {
+        this(size, List.of(InetSocketAddress.createUnresolved(ip, port)), RoutingStrategy.LEAST_OUTSTANDING, setup);
+    }
+
+    /**
+     * Connects the members, members that fail to connect are retried in the background
+     *
+     * @return If at least one member is connected
+     */
+    public boolean start() {
+        for (int slot = 0; slot < members.length(); slot++) {
+            connect(slot);
+        }
+        maintainer = threadFactory.newThread(this::maintain);
+        maintainer.setName("Pool Maintainer");
+        maintainer.start();
+        return getConnected() > 0;
+    }
+
+    /**
+     * Replaces the members that are not connected, until the pool is stopped
+     */
+    private void maintain() {
+        while (!stopped) {
+            LockSupport.parkNanos(this, CHECK_INTERVAL);
+            for (int slot = 0; slot < members.length() && !stopped; slot++) {
+                SocketClient member = members.get(slot);
+                if ((member == null || !member.isConnected()) && replacing[slot].compareAndSet(false, true)) {
+                    int replaced = slot;
+                    // connecting can take long, for example if a server does not answer, the other slots must not wait
+                    Thread thread = threadFactory.newThread(() -> {
+                        try {
+                            if (connect(replaced) && member != null) replacements.incrementAndGet();
+                        } finally {
+                            replacing[replaced].set(false);
+                        }
+                    });
+                    thread.setName("Pool Connector");
+                    thread.start();
+                }
+            }
+        }
+    }
+
+    /**
+     * Connects a new member for a slot and stops the one it replaces
+     *
+     * @param slot The slot
+     * @return If the new member is connected
+     */
+    private boolean connect(int slot) {
+        InetSocketAddress endpoint = endpoints.get(endpointOf[slot]);
+        SocketClient client = new SocketClient(endpoint.getHostString(), endpoint.getPort());
+        setup.accept(client);
+        // the pool replaces broken members, a member reconnecting on its own would only be skipped meanwhile
+        client.setAutoReconnect(false);
+        if (stopped || !client.start()) {
+            LOGGER.log(System.Logger.Level.DEBUG, () -> "Pool member " + slot + " failed to connect to " + endpoint);
+            endpointOf[slot] = (endpointOf[slot] + 1) % endpoints.size();
+            client.stop();
+            return false;
+        }
+        SocketClient previous = members.getAndSet(slot, client);
+        if (previous != null) previous.stop();
+        if (stopped) client.stop();
+        LOGGER.log(System.Logger.Level.DEBUG, () -> "Pool member " + slot + " connected to " + endpoint);
+        return true;
+    }
+
+    /**
+     * Picks the member for the next request
+     *
+     * @return A connected member
+     * @throws IllegalStateException if no member is connected
+     */
+    public SocketClient next() {
+        int size = members.length();
+        int start = Math.floorMod(next.getAndIncrement(), size);
+        SocketClient best = null;
+        int bestOutstanding = Integer.MAX_VALUE;
+        for (int i = 0; i < size; i++) {
+            SocketClient member = members.get((start + i) % size);
+            if (member == null || !member.isConnected()) continue;
+            if (strategy == RoutingStrategy.ROUND_ROBIN) return member;
+            int outstanding = member.getOutstandingRequests();
+            if (outstanding < bestOutstanding) {
+                best = member;
+                bestOutstanding = outstanding;
+                if (outstanding == 0) break;
+            }
+        }
+        if (best == null) throw new IllegalStateException("No connection of the pool is available");
+        return best;
+    }
+
+    /**
+     * Creates a request on the member picked by the {@link RoutingStrategy}, see {@link SocketClient#getRequest(Class)}
+     *
+     * @param clazz The request class
+     * @param <T>   The request type
+     * @return The request instance
+     * @throws IllegalStateException if no member is connected
+     */
+    public <T extends Request> T getRequest(Class<T> clazz) {
+        return next().getRequest(clazz);
+    }
+
+    /**
+     * Creates a request on the member picked by the {@link RoutingStrategy}, see {@link SocketClient#getRequest(String)}
+     *
+     * @param name The request name
+     * @return The request instance
+     * @throws IllegalStateException if no member is connected
+     */
+    public <T extends Request> T getRequest(String name) {
+        return next().getRequest(name);
+    }
+
+    /**
+     * Creates a batch on the member picked by the {@link RoutingStrategy}, all its requests are sent on that member
+     *
+     * @return The batch
+     * @throws IllegalStateException if no member is connected
+     */
+    public RequestBatch batch() {
+        return next().batch();
+    }
+
+    /**
+     * @return The current members, a slot whose member never connected is left out
+     */
+    public List<SocketClient> getMembers() {
+        List<SocketClient> list = new ArrayList<>(members.length());
+        for (int i = 0; i < members.length(); i++) {
+            SocketClient member = members.get(i);
+            if (member != null) list.add(member);
+        }
+        return list;
+    }
+
+    /**
+     * @return The amount of connected members
+     */
+    public int getConnected() {
+        int connected = 0;
+        for (int i = 0; i < members.length(); i++) {
+            SocketClient member = members.get(i);
+            if (member != null && member.isConnected()) connected++;
+        }
+        return connected;
+    }
+
+    /**
+     * @return How often a broken member was replaced
+     */
+    public int getReplacements() {
+        return replacements.get();
+    }
+
+    /**
+     * @return The amount of connections the pool keeps
+     */
+    public int size() {
+        return members.length();
+    }
+
+    /**
+     * Sets the factory creating the threads of the pool, the members use their own, see
+     * {@link SocketClient#setThreadFactory(ThreadFactory)}
+     *
+     * @param threadFactory The factory
+     * @apiNote Has to be set before the pool is started
+     */
+    public void setThreadFactory(ThreadFactory threadFactory) {
+        this.threadFactory = threadFactory;
+    }
+
+    /**
+     * Stops the pool and all of its members
+     */
+    public void stop() {
+        stopped = true;
+        if (maintainer != null) LockSupport.unpark(maintainer);
+        for (int i = 0; i < members.length(); i++) {
+            SocketClient member = members.getAndSet(i, null);
+            if (member != null) member.stop();
+        }
+    }
+}
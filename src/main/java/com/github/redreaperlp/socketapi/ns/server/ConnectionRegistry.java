@@ -0,0 +1,99 @@
+package com.github.redreaperlp.socketapi.ns.server;
+
+import com.github.redreaperlp.socketapi.communication.Connection;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The connections of a server, indexed by their id, their class and their identifier
+ *
+ * @apiNote Thread safe, adding, removing and looking up a connection by id does not depend on the amount of connections
+ */
+public class ConnectionRegistry {
+    private final Map<Long, Connection> byId = new ConcurrentHashMap<>();
+    private final Map<Class<?>, Set<Connection>> byClass = new ConcurrentHashMap<>();
+    private final Map<String, Set<Connection>> byIdentifier = new ConcurrentHashMap<>();
+    private final Collection<Connection> all = Collections.unmodifiableCollection(byId.values());
+
+    /**
+     * Adds a connection, it is indexed by the identifier it has at this point
+     *
+     * @param con The connection
+     */
+    public void add(Connection con) {
+        if (byId.putIfAbsent(con.getConnectionId(), con) != null) return;
+        byClass.computeIfAbsent(con.getClass(), c -> ConcurrentHashMap.newKeySet()).add(con);
+        if (con.getIdentifier() != null) {
+            byIdentifier.computeIfAbsent(con.getIdentifier(), i -> ConcurrentHashMap.newKeySet()).add(con);
+        }
+    }
+
+    /**
+     * Removes a connection
+     *
+     * @param con The connection
+     * @return If the connection was registered
+     */
+    public boolean remove(Connection con) {
+        if (!byId.remove(con.getConnectionId(), con)) return false;
+        Set<Connection> sameClass = byClass.get(con.getClass());
+        if (sameClass != null) sameClass.remove(con);
+        if (con.getIdentifier() != null) {
+            Set<Connection> sameIdentifier = byIdentifier.get(con.getIdentifier());
+            if (sameIdentifier != null) sameIdentifier.remove(con);
+        }
+        return true;
+    }
+
+    /**
+     * @param id The id of the connection, see {@link Connection#getConnectionId()}
+     * @return The connection or null if there is none with this id
+     */
+    public Connection get(long id) {
+        return byId.get(id);
+    }
+
+    /**
+     * @return A live view of all connections, iterating it does not copy them
+     */
+    public Collection<Connection> getAll() {
+        return all;
+    }
+
+    /**
+     * Gets all connections of a type, including subclasses
+     *
+     * @param clazz The connection class
+     * @param <T>   The connection type
+     * @return A new list of the connections
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends Connection> List<T> getConnections(Class<T> clazz) {
+        List<T> list = new ArrayList<>();
+        byClass.forEach((type, connections) -> {
+            if (clazz.isAssignableFrom(type)) {
+                for (Connection con : connections) list.add((T) con);
+            }
+        });
+        return list;
+    }
+
+    /**
+     * @param identifier The identifier the connections registered with, see {@link com.github.redreaperlp.socketapi.event.ConnectionHandler}
+     * @return A live view of the connections, empty if there are none
+     */
+    public Collection<Connection> getConnections(String identifier) {
+        Set<Connection> connections = byIdentifier.get(identifier);
+        return connections == null ? Collections.emptySet() : Collections.unmodifiableSet(connections);
+    }
+
+    public int size() {
+        return byId.size();
+    }
+}
@@ -2,37 +2,59 @@ package com.github.redreaperlp.socketapi.ns.server;
 
 import com.github.redreaperlp.socketapi.communication.Connection;
 import com.github.redreaperlp.socketapi.communication.ConnectionImpl;
+import com.github.redreaperlp.socketapi.communication.broadcast.Backpressure;
+import com.github.redreaperlp.socketapi.communication.broadcast.Broadcast;
+import com.github.redreaperlp.socketapi.communication.broadcast.BroadcastFrame;
+import com.github.redreaperlp.socketapi.communication.crypto.FrameCipher;
 import com.github.redreaperlp.socketapi.communication.handler.IPromisingRequestHandler;
 import com.github.redreaperlp.socketapi.communication.handler.IReqHandler;
 import com.github.redreaperlp.socketapi.communication.handler.IRequestHandler;
+import com.github.redreaperlp.socketapi.communication.protocol.Handshake;
 import com.github.redreaperlp.socketapi.communication.request.Request;
 import com.github.redreaperlp.socketapi.communication.request.requests.RequestPing;
 import com.github.redreaperlp.socketapi.communication.request.requests.RequestRegister;
 import com.github.redreaperlp.socketapi.communication.request.special.RequestPromising;
 import com.github.redreaperlp.socketapi.communication.response.Response;
+import com.github.redreaperlp.socketapi.communication.transport.EventLoopGroup;
+import com.github.redreaperlp.socketapi.communication.transport.NioChannel;
 import com.github.redreaperlp.socketapi.event.ConnectionHandler;
 import com.github.redreaperlp.socketapi.ns.NetInstance;
+import com.github.redreaperlp.socketapi.ns.NetOptions;
 import org.json.JSONObject;
 
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.lang.reflect.InvocationTargetException;
+import java.net.InetSocketAddress;
 import java.net.ServerSocket;
 import java.net.Socket;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Predicate;
 
 public class SocketServer implements NetInstance {
+    private static final System.Logger LOGGER = System.getLogger(SocketServer.class.getName());
     private final int port;
     private Thread incomingThread;
-    private final List<Connection> connections = new ArrayList<>();
+    private final ConnectionRegistry connections = new ConnectionRegistry();
     private byte[] encryptionKey;
+    private FrameCipher broadcastCipher;
+    private int broadcastLimit = 1024;
+    private final NetOptions options = new NetOptions(
+            () -> connections.getAll().stream().mapToInt(Connection::getQueuedRequests).sum(),
+            () -> connections.getAll().stream().mapToInt(con -> con.getPendingResponses().size()).sum());
 
     private final Map<Class<? extends Request>, IReqHandler> handlers = new HashMap<>();
     private boolean stopped = false;
+    private int eventLoopThreads = 0;
+    private EventLoopGroup eventLoopGroup;
+    private ServerSocketChannel serverChannel;
 
 
     public SocketServer(int port) {
@@ -44,10 +66,18 @@ public class SocketServer implements NetInstance {
         req.setResponse(new JSONObject().put("pong", true), 200);
     };
 
+    /**
+     * Answers the registration of clients if no custom connection classes are registered
+     */
+    IPromisingRequestHandler registerHandler = (req, data) -> {
+        Connection con = req.getManager().getConnection();
+        req.setResponse(Handshake.accept(con, req.getResponse(), data), 200);
+    };
+
     IPromisingRequestHandler requestHandler = (req, data) -> {
-        System.out.println("Got stop request");
+        LOGGER.log(System.Logger.Level.DEBUG, "Got stop request");
         req.setResponse(new JSONObject().put("bye", true), 200);
-        new Thread(() -> {
+        threadFactory().newThread(() -> {
             try {
                 Thread.sleep(1000);
             } catch (InterruptedException e) {
@@ -57,26 +87,42 @@ public class SocketServer implements NetInstance {
         }).start();
     };
 
+    /**
+     * Lets a fixed amount of event loop threads handle the reads and writes of all connections
+     * instead of giving every connection its own threads
+     *
+     * @param threads The amount of event loop threads, 0 to disable
+     * @apiNote Has to be called before {@link #start()}, handlers are executed on the event loop threads,
+     * so they must not wait for a response with {@link RequestPromising#complete()}
+     */
+    public void useEventLoops(int threads) {
+        this.eventLoopThreads = threads;
+    }
+
     /**
      * Starts the server and listens for incoming connections
      */
     public void start() {
-        incomingThread = new Thread(() -> {
+        if (eventLoopThreads > 0) {
+            startEventLoops();
+            return;
+        }
+        incomingThread = threadFactory().newThread(() -> {
             try (ServerSocket serverSocket = new ServerSocket(port)) {
                 while (true) {
                     Socket socket = serverSocket.accept();
-                    System.out.println("New connection from " + socket.getInetAddress().getHostAddress());
+                    LOGGER.log(System.Logger.Level.DEBUG, () -> "New connection from " + socket.getInetAddress().getHostAddress());
                     if (ConnectionHandler.getInstance().getRegisteredConnectionClasses().isEmpty()) {
                         Connection con = new ConnectionImpl(socket, this);
                         con.getRequestHandler().registerPromisingHandler(RequestPing.class, pingHandler);
+                        con.getRequestHandler().registerPromisingHandler(RequestRegister.class, registerHandler);
                         handlers.forEach((clazz, handler) -> con.getRequestHandler().registerHandler(clazz, handler));
                         con.incoming();
                         con.outgoing();
-                        con.timeout();
                         con.notifier(con);
                         connections.add(con);
                     } else {
-                        new Thread(() -> {
+                        threadFactory().newThread(() -> {
                             try {
                                 BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream()));
                                 String line = reader.readLine();
@@ -100,15 +146,16 @@ public class SocketServer implements NetInstance {
                                             Connection customCon = ConnectionHandler.getInstance().getConnectionClass(identifier)
                                                     .getDeclaredConstructor(Socket.class, NetInstance.class)
                                                     .newInstance(socket, this);
+                                            Response res = customCon.getRequestManager().getRequest(Response.class, id);
+                                            res.setStatus(200);
+                                            res.setID(id);
+                                            res.setData(Handshake.accept(customCon, res, data).put("identifier", identifier));
                                             customCon.incoming();
                                             customCon.outgoing();
                                             customCon.getRequestHandler().registerPromisingHandler(RequestPing.class, pingHandler);
                                             handlers.forEach((clazz, handler) -> customCon.getRequestHandler().registerHandler(clazz, handler));
-                                            Response res = customCon.getRequestManager().getRequest(Response.class, id);
-                                            res.setStatus(200);
-                                            res.setID(id);
-                                            res.setData(new JSONObject().put("identifier", identifier));
                                             res.queue();
+                                            customCon.setIdentifier(identifier);
                                             connections.add(customCon);
                                             return;
                                         }
@@ -136,6 +183,77 @@ public class SocketServer implements NetInstance {
         incomingThread.start();
     }
 
+    private void startEventLoops() {
+        eventLoopGroup = new EventLoopGroup(eventLoopThreads, threadFactory());
+        try {
+            serverChannel = ServerSocketChannel.open();
+            serverChannel.bind(new InetSocketAddress(port));
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        incomingThread = threadFactory().newThread(() -> {
+            while (!stopped) {
+                try {
+                    SocketChannel channel = serverChannel.accept();
+                    channel.configureBlocking(false);
+                    channel.socket().setTcpNoDelay(true);
+                    LOGGER.log(System.Logger.Level.DEBUG, () -> "New connection from " + channel.socket().getInetAddress().getHostAddress());
+                    accept(channel);
+                } catch (IOException e) {
+                    if (stopped) return;
+                    throw new RuntimeException(e);
+                }
+            }
+        });
+        incomingThread.setName("Acceptor");
+        incomingThread.start();
+    }
+
+    private void accept(SocketChannel channel) {
+        Connection con = new ConnectionImpl(channel.socket(), this);
+        con.getRequestHandler().registerPromisingHandler(RequestPing.class, pingHandler);
+        if (ConnectionHandler.getInstance().getRegisteredConnectionClasses().isEmpty()) {
+            con.getRequestHandler().registerPromisingHandler(RequestRegister.class, registerHandler);
+            handlers.forEach((clazz, handler) -> con.getRequestHandler().registerHandler(clazz, handler));
+            con.notifier(con);
+            connections.add(con);
+            eventLoopGroup.next().register(channel, con);
+            return;
+        }
+        con.getRequestHandler().registerPromisingHandler(RequestRegister.class, (req, data) -> {
+            NioChannel nioChannel = con.getChannel();
+            String identifier = data.has("identifier") ? data.getString("identifier") : null;
+            if (identifier == null) {
+                req.setResponse(new JSONObject().put("reason", "No identifier found"), 400);
+                nioChannel.closeAfterFlush();
+                return;
+            }
+            if (!ConnectionHandler.getInstance().hasIdentifier(identifier)) {
+                req.setResponse(new JSONObject().put("reason", "No custom connection class found for identifier \"" + identifier + "\""), 404);
+                nioChannel.closeAfterFlush();
+                return;
+            }
+            try {
+                Connection customCon = ConnectionHandler.getInstance().getConnectionClass(identifier)
+                        .getDeclaredConstructor(Socket.class, NetInstance.class)
+                        .newInstance(channel.socket(), this);
+                customCon.getRequestHandler().registerPromisingHandler(RequestPing.class, pingHandler);
+                handlers.forEach((clazz, handler) -> customCon.getRequestHandler().registerHandler(clazz, handler));
+                nioChannel.bind(customCon);
+                customCon.notifier(customCon);
+                // the response is queued after this handler, so it has to be created by the new connection
+                req.setManager(customCon.getRequestManager());
+                req.setResponse(Handshake.accept(customCon, req.getResponse(), data).put("identifier", identifier), 200);
+                customCon.setIdentifier(identifier);
+                connections.add(customCon);
+            } catch (NoSuchMethodException | InstantiationException | IllegalAccessException |
+                     InvocationTargetException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        eventLoopGroup.next().register(channel, con);
+    }
+
     /**
      * Removes a connection from the list
      * @param con The connection to remove
@@ -151,38 +269,136 @@ public class SocketServer implements NetInstance {
      * @param <T> The connection type
      */
     public <T extends Connection> List<T> getConnections(Class<T> clazz) {
-        List<T> list = new ArrayList<>();
-        for (Connection con : connections) {
-            if (clazz.isInstance(con)) {
-                list.add((T) con);
+        return connections.getConnections(clazz);
+    }
+
+    /**
+     * Gets all connections that registered with an identifier
+     * @param identifier The identifier, see {@link ConnectionHandler}
+     * @return A live view of the connections
+     */
+    public Collection<Connection> getConnections(String identifier) {
+        return connections.getConnections(identifier);
+    }
+
+    /**
+     * @param id The id of the connection, see {@link Connection#getConnectionId()}
+     * @return The connection or null if there is none with this id
+     */
+    public Connection getConnection(long id) {
+        return connections.get(id);
+    }
+
+    /**
+     * @return The registry of all connections of this server
+     */
+    public ConnectionRegistry getConnectionRegistry() {
+        return connections;
+    }
+
+    /**
+     * Sends a request to every connection matching the filter, the connections are not able to respond
+     *
+     * @param request The request, created by any connection or with its constructor
+     * @param filter  Decides which connections receive the request
+     * @return The amount of connections the request was queued for
+     * @apiNote Connections with more than {@link #getBroadcastLimit()} queued requests are skipped
+     */
+    public int broadcast(Request request, Predicate<Connection> filter) {
+        return broadcast(request, filter, Backpressure.SKIP);
+    }
+
+    /**
+     * Sends a request to every connection matching the filter, the connections are not able to respond
+     * <p>
+     * The request is serialized once and encoded once per format the connections use,
+     * the encoded frames are shared by all connections
+     *
+     * @param request      The request, created by any connection or with its constructor
+     * @param filter       Decides which connections receive the request
+     * @param backpressure What to do with connections that have more than {@link #getBroadcastLimit()} queued requests
+     * @return The amount of connections the request was queued for
+     * @throws IllegalArgumentException if the request expects a response
+     */
+    public int broadcast(Request request, Predicate<Connection> filter, Backpressure backpressure) {
+        if (request instanceof RequestPromising) {
+            throw new IllegalArgumentException("Requests expecting a response cannot be broadcast");
+        }
+        request.pack();
+        JSONObject object = new JSONObject()
+                .put("type", request.getName())
+                .put("data", request.getData());
+        Broadcast broadcast = new Broadcast(request.getName(), object, broadcastCipher(), compressionThreshold(), metrics());
+        int queued = 0;
+        for (Connection con : connections.getAll()) {
+            if (!filter.test(con)) continue;
+            if (con.getQueuedRequests() >= broadcastLimit) {
+                if (backpressure == Backpressure.DISCONNECT) {
+                    con.end();
+                    continue;
+                }
+                if (backpressure == Backpressure.SKIP || !con.dropOldestBroadcast()) continue;
             }
+            con.queueBroadcast(new BroadcastFrame(broadcast));
+            queued++;
         }
-        return list;
+        return queued;
+    }
+
+    /**
+     * @return The amount of queued requests from which on a connection counts as slow for broadcasts
+     */
+    public int getBroadcastLimit() {
+        return broadcastLimit;
+    }
+
+    public void setBroadcastLimit(int broadcastLimit) {
+        this.broadcastLimit = broadcastLimit;
+    }
+
+    private synchronized FrameCipher broadcastCipher() {
+        if (!usesEncrytion()) return null;
+        if (broadcastCipher == null) broadcastCipher = new FrameCipher(encryptionKey);
+        return broadcastCipher;
     }
 
     @Override
     public void notifyConnectionClosed(Connection con) {
         con.end();
-        System.out.println("Connection closed: " + con.getSocket().getInetAddress().getHostAddress());
+        LOGGER.log(System.Logger.Level.DEBUG, () -> "Connection closed: " + con.getSocket().getInetAddress().getHostAddress());
     }
 
 
+    @Override
+    public NetOptions options() {
+        return options;
+    }
+
     @Override
     public byte[] encryptionKey() {
         return encryptionKey;
     }
 
     @Override
-    public void setEncryptionKey(byte[] key) {
+    public synchronized void setEncryptionKey(byte[] key) {
         this.encryptionKey = key;
+        this.broadcastCipher = null;
     }
 
     @Override
     public void stop() {
         stopped = true;
-        for (Connection con : connections) {
+        for (Connection con : new ArrayList<>(connections.getAll())) {
             con.end();
         }
+        if (serverChannel != null) {
+            try {
+                serverChannel.close();
+            } catch (IOException ignored) {
+            }
+        }
+        if (eventLoopGroup != null) eventLoopGroup.shutdown();
+        options.shutdown();
     }
 
     @Override
@@ -0,0 +1,150 @@
+package com.github.redreaperlp.socketapi;
+
+import com.github.redreaperlp.socketapi.communication.Connection;
+import com.github.redreaperlp.socketapi.communication.ConnectionImpl;
+import com.github.redreaperlp.socketapi.communication.RequestManager;
+import com.github.redreaperlp.socketapi.communication.request.requests.RequestPing;
+import com.github.redreaperlp.socketapi.communication.request.requests.RequestRegister;
+import com.github.redreaperlp.socketapi.communication.request.requests.RequestStop;
+import com.github.redreaperlp.socketapi.ns.client.SocketClient;
+import com.github.redreaperlp.socketapi.ns.server.SocketServer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * A server on the loopback interface for tests, the clients it connects are stopped with it
+ */
+public class LoopbackServer implements AutoCloseable {
+    private final SocketServer server;
+    private final int port;
+    private final List<SocketClient> clients = new ArrayList<>();
+
+    static {
+        RequestManager.registerRequest(RequestRegister.name, RequestRegister.class);
+        RequestManager.registerRequest(RequestPing.name, RequestPing.class);
+        RequestManager.registerRequest(RequestStop.name, RequestStop.class);
+    }
+
+    /**
+     * Starts a server
+     *
+     * @param setup Configures the server before it starts
+     */
+    public LoopbackServer(Consumer<SocketServer> setup) {
+        port = freePort();
+        server = new SocketServer(port);
+        setup.accept(server);
+        server.start();
+    }
+
+    /**
+     * @return A port that was free a moment ago
+     */
+    public static int freePort() {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Creates a connection of a server that is not started, the connection is not started either, so nothing is read
+     * or written and its queue only shrinks when a test polls it
+     *
+     * @param setup Configures the server before the connection is created
+     * @return The connection, closing it also stops its server
+     */
+    public static UnstartedConnection unstartedConnection(Consumer<SocketServer> setup) {
+        try (ServerSocket listener = new ServerSocket(0)) {
+            Socket client = new Socket("localhost", listener.getLocalPort());
+            Socket accepted = listener.accept();
+            SocketServer server = new SocketServer(freePort());
+            setup.accept(server);
+            Connection con = new ConnectionImpl(accepted, server);
+            server.getConnectionRegistry().add(con);
+            return new UnstartedConnection(server, con, client);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Connects a client, it is stopped when the server is closed
+     *
+     * @param setup Configures the client before it connects
+     * @return The connected client
+     * @throws IllegalStateException if the client could not connect
+     */
+    public SocketClient connect(Consumer<SocketClient> setup) {
+        SocketClient client = new SocketClient("localhost", port);
+        setup.accept(client);
+        clients.add(client);
+        // the server binds its socket on its own thread
+        for (int attempt = 0; attempt < 100; attempt++) {
+            if (client.start()) return client;
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        throw new IllegalStateException("Could not connect to the loopback server");
+    }
+
+    public SocketServer getServer() {
+        return server;
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    @Override
+    public void close() {
+        for (SocketClient client : clients) {
+            client.stop();
+        }
+        server.stop();
+    }
+
+    /**
+     * A connection of a server that is not started, see {@link #unstartedConnection(Consumer)}
+     */
+    public static class UnstartedConnection implements AutoCloseable {
+        private final SocketServer server;
+        private final Connection connection;
+        private final Socket peer;
+
+        private UnstartedConnection(SocketServer server, Connection connection, Socket peer) {
+            this.server = server;
+            this.connection = connection;
+            this.peer = peer;
+        }
+
+        public SocketServer getServer() {
+            return server;
+        }
+
+        public Connection getConnection() {
+            return connection;
+        }
+
+        @Override
+        public void close() {
+            connection.end();
+            server.stop();
+            try {
+                peer.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
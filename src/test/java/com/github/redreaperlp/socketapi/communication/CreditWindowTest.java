@@ -0,0 +1,137 @@
+package com.github.redreaperlp.socketapi.communication;
+
+import com.github.redreaperlp.socketapi.LoopbackServer;
+import com.github.redreaperlp.socketapi.communication.dispatch.DispatchMode;
+import com.github.redreaperlp.socketapi.communication.dispatch.RejectionPolicy;
+import com.github.redreaperlp.socketapi.communication.request.requests.RequestPing;
+import com.github.redreaperlp.socketapi.communication.request.special.RequestPromising;
+import com.github.redreaperlp.socketapi.ns.client.SocketClient;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CreditWindowTest {
+    private static volatile CountDownLatch release = new CountDownLatch(0);
+
+    static {
+        RequestManager.registerRequest(RequestSlow.name, RequestSlow.class);
+    }
+
+    @Test
+    void handshakeSetsTheSendWindowOfThePeer() {
+        try (LoopbackServer loopback = new LoopbackServer(server -> server.setInFlightWindow(4))) {
+            SocketClient client = loopback.connect(c -> {
+            });
+            assertEquals(4, connectionOf(client).getSendWindow());
+        }
+    }
+
+    @Test
+    void grantedWindowIsSentWithTheNextResponse() {
+        try (LoopbackServer loopback = new LoopbackServer(server -> server.setInFlightWindow(4))) {
+            SocketClient client = loopback.connect(c -> {
+            });
+            Connection serverSide = loopback.getServer().getConnectionRegistry().getAll().iterator().next();
+
+            serverSide.grantWindow(8);
+            RequestPing ping = client.getRequest(RequestPing.class);
+            ping.complete();
+            assertEquals(200, ping.failed());
+            assertEquals(8, connectionOf(client).getSendWindow());
+
+            serverSide.grantWindow(0);
+            client.getRequest(RequestPing.class).complete();
+            assertEquals(0, connectionOf(client).getSendWindow(), "0 lifts the limit");
+        }
+    }
+
+    @Test
+    void windowLimitsTheRequestsInFlight() {
+        release = new CountDownLatch(1);
+        try (LoopbackServer loopback = new LoopbackServer(server -> {
+            server.setInFlightWindow(2);
+            server.useDispatcher(DispatchMode.POOLED, 4, 100, RejectionPolicy.REJECT);
+            server.registerPromisingHandler(RequestSlow.class, CreditWindowTest::awaitRelease);
+        })) {
+            SocketClient client = loopback.connect(c -> c.setRequestTimeout(10_000));
+            Connection con = connectionOf(client);
+            List<RequestSlow> requests = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                RequestSlow request = client.getRequest(RequestSlow.class);
+                request.queue();
+                requests.add(request);
+            }
+            assertEquals(2, con.getInFlight());
+            assertEquals(3, con.getAwaitingCredit());
+
+            release.countDown();
+            for (RequestSlow request : requests) {
+                request.getFuture().join();
+                assertEquals(200, request.failed());
+            }
+            assertEquals(0, con.getInFlight());
+            assertEquals(0, con.getAwaitingCredit());
+        }
+    }
+
+    @Test
+    void requestTimingOutWhileWaitingForACreditDoesNotKeepOne() {
+        release = new CountDownLatch(1);
+        try (LoopbackServer loopback = new LoopbackServer(server -> {
+            server.setInFlightWindow(1);
+            server.useDispatcher(DispatchMode.POOLED, 2, 100, RejectionPolicy.REJECT);
+            server.registerPromisingHandler(RequestSlow.class, CreditWindowTest::awaitRelease);
+        })) {
+            SocketClient client = loopback.connect(c -> c.setRequestTimeout(10_000));
+            Connection con = connectionOf(client);
+            RequestSlow sent = client.getRequest(RequestSlow.class);
+            sent.queue();
+            RequestSlow waiting = client.getRequest(RequestSlow.class);
+            waiting.setTimeout(100);
+            waiting.queue();
+
+            waiting.getFuture().join();
+            assertEquals(408, waiting.failed());
+            release.countDown();
+            sent.getFuture().join();
+            assertEquals(200, sent.failed());
+            assertEquals(0, con.getInFlight());
+
+            RequestPing ping = client.getRequest(RequestPing.class);
+            ping.complete();
+            assertEquals(200, ping.failed(), "the credit is free again");
+        }
+    }
+
+    private static void awaitRelease(RequestPromising request, JSONObject data) {
+        try {
+            assertTrue(release.await(10, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static Connection connectionOf(SocketClient client) {
+        return client.getRequest(RequestPing.class).getManager().getConnection();
+    }
+
+    public static class RequestSlow extends RequestPromising {
+        public static final String name = "slow";
+
+        public RequestSlow(long id) {
+            super(id);
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+    }
+}
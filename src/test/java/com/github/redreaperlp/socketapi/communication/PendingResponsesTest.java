@@ -0,0 +1,108 @@
+package com.github.redreaperlp.socketapi.communication;
+
+import com.github.redreaperlp.socketapi.communication.request.requests.RequestPing;
+import com.github.redreaperlp.socketapi.communication.request.special.RequestPromising;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PendingResponsesTest {
+
+    @Test
+    void putGetAndRemove() {
+        PendingResponses pending = new PendingResponses();
+        RequestPing ping = new RequestPing(7);
+        pending.put(ping);
+        assertSame(ping, pending.get(7));
+        assertNull(pending.get(8));
+        assertEquals(1, pending.size());
+
+        assertSame(ping, pending.remove(7));
+        assertNull(pending.get(7));
+        assertNull(pending.remove(7));
+        assertTrue(pending.isEmpty());
+    }
+
+    @Test
+    void requestWithTheSameIdIsReplaced() {
+        PendingResponses pending = new PendingResponses();
+        RequestPing first = new RequestPing(3);
+        RequestPing second = new RequestPing(3);
+        pending.put(first);
+        pending.put(second);
+        assertEquals(1, pending.size());
+        assertSame(second, pending.get(3));
+
+        assertFalse(pending.remove(first), "the replaced request is not removed");
+        assertEquals(1, pending.size());
+        assertTrue(pending.remove(second));
+        assertTrue(pending.isEmpty());
+    }
+
+    @Test
+    void manyRequestsSurviveGrowingAndRemoving() {
+        PendingResponses pending = new PendingResponses();
+        for (long id = 0; id < 10_000; id++) {
+            pending.put(new RequestPing(id));
+        }
+        assertEquals(10_000, pending.size());
+        for (long id = 0; id < 10_000; id += 2) {
+            assertEquals(id, pending.remove(id).getId());
+        }
+        assertEquals(5_000, pending.size());
+        for (long id = 0; id < 10_000; id++) {
+            RequestPromising found = pending.get(id);
+            if (id % 2 == 0) {
+                assertNull(found);
+            } else {
+                assertEquals(id, found.getId(), "lookups still find requests behind removed ones");
+            }
+        }
+    }
+
+    @Test
+    void removeAllOnlyRemovesMatchingRequests() {
+        PendingResponses pending = new PendingResponses();
+        for (long id = 0; id < 100; id++) {
+            pending.put(new RequestPing(id));
+        }
+        List<RequestPromising> removed = pending.removeAll(promising -> promising.getId() < 30);
+        assertEquals(30, removed.size());
+        assertEquals(70, pending.size());
+        assertNull(pending.get(29));
+        assertEquals(30, pending.get(30).getId());
+    }
+
+    @Test
+    void concurrentPutsAndRemovesKeepTheSize() throws InterruptedException {
+        PendingResponses pending = new PendingResponses();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            long offset = t * 100_000L;
+            Thread thread = new Thread(() -> {
+                for (long id = offset; id < offset + 5_000; id++) {
+                    RequestPing ping = new RequestPing(id);
+                    pending.put(ping);
+                    if (id % 3 == 0) assertTrue(pending.remove(ping));
+                }
+                for (long id = offset; id < offset + 5_000; id++) {
+                    if (id % 3 != 0) assertEquals(id, pending.remove(id).getId());
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertTrue(pending.isEmpty());
+        assertEquals(0, pending.size());
+    }
+}
@@ -0,0 +1,107 @@
+package com.github.redreaperlp.socketapi.communication.broadcast;
+
+import com.github.redreaperlp.socketapi.LoopbackServer;
+import com.github.redreaperlp.socketapi.communication.Connection;
+import com.github.redreaperlp.socketapi.communication.request.Request;
+import com.github.redreaperlp.socketapi.communication.request.special.RequestVoiding;
+import com.github.redreaperlp.socketapi.ns.server.SocketServer;
+import org.json.JSONObject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The connection is never started, so nothing is written and every broadcast stays queued until it is polled
+ */
+class BackpressureTest {
+    private LoopbackServer.UnstartedConnection fixture;
+    private SocketServer server;
+    private Connection con;
+
+    @BeforeEach
+    void setUp() {
+        fixture = LoopbackServer.unstartedConnection(server -> server.setBroadcastLimit(2));
+        server = fixture.getServer();
+        con = fixture.getConnection();
+    }
+
+    @AfterEach
+    void tearDown() {
+        fixture.close();
+    }
+
+    @Test
+    void skipLeavesTheSlowConnectionOut() {
+        assertEquals(1, server.broadcast(event(1), c -> true, Backpressure.SKIP));
+        assertEquals(1, server.broadcast(event(2), c -> true, Backpressure.SKIP));
+        assertEquals(0, server.broadcast(event(3), c -> true, Backpressure.SKIP));
+        assertEquals(2, con.getQueuedRequests());
+        assertEquals(1, polledNumber());
+        assertEquals(2, polledNumber());
+        assertNull(con.pollRequest());
+    }
+
+    @Test
+    void dropOldestReplacesTheOldestBroadcast() {
+        for (int i = 1; i <= 4; i++) {
+            assertEquals(1, server.broadcast(event(i), c -> true, Backpressure.DROP_OLDEST));
+        }
+        assertEquals(2, con.getQueuedRequests(), "dropped broadcasts are not counted");
+        assertEquals(3, polledNumber());
+        assertEquals(1, con.getQueuedRequests());
+        assertEquals(4, polledNumber());
+        assertNull(con.pollRequest());
+        assertEquals(0, con.getQueuedRequests());
+    }
+
+    @Test
+    void dropOldestSkipsAConnectionWithoutBroadcasts() {
+        server.setBroadcastLimit(0);
+        assertEquals(0, server.broadcast(event(1), c -> true, Backpressure.DROP_OLDEST));
+        assertEquals(0, con.getQueuedRequests());
+    }
+
+    @Test
+    void claimedBroadcastCanNotBeDropped() {
+        BroadcastFrame frame = new BroadcastFrame(null);
+        assertTrue(frame.claim());
+        assertFalse(frame.drop());
+        assertFalse(frame.isDropped());
+
+        BroadcastFrame dropped = new BroadcastFrame(null);
+        assertTrue(dropped.drop());
+        assertFalse(dropped.claim());
+        assertTrue(dropped.isDropped());
+    }
+
+    @Test
+    void disconnectEndsTheSlowConnection() {
+        server.broadcast(event(1), c -> true, Backpressure.DISCONNECT);
+        server.broadcast(event(2), c -> true, Backpressure.DISCONNECT);
+        assertEquals(0, server.broadcast(event(3), c -> true, Backpressure.DISCONNECT));
+        assertEquals(0, server.getConnectionRegistry().size());
+        assertTrue(con.getSocket().isClosed());
+    }
+
+    private int polledNumber() {
+        Request request = con.pollRequest();
+        assertTrue(request instanceof BroadcastFrame);
+        return ((BroadcastFrame) request).getBroadcast().getObject().getJSONObject("data").getInt("number");
+    }
+
+    private static Request event(int number) {
+        RequestVoiding event = new RequestVoiding() {
+            @Override
+            public String getName() {
+                return "event";
+            }
+        };
+        event.setData(new JSONObject().put("number", number));
+        return event;
+    }
+}
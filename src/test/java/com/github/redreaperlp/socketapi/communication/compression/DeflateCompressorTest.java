@@ -0,0 +1,61 @@
+package com.github.redreaperlp.socketapi.communication.compression;
+
+import com.github.redreaperlp.socketapi.communication.codec.JsonCodec;
+import com.github.redreaperlp.socketapi.communication.protocol.Frames;
+import com.github.redreaperlp.socketapi.communication.protocol.WireFormat;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DeflateCompressorTest {
+    private static final int THRESHOLD = 1024;
+    private static final WireFormat FORMAT = new WireFormat(Frames.V2, JsonCodec.INSTANCE, DeflateCompressor.INSTANCE);
+
+    @Test
+    void payloadRoundTrips() {
+        byte[] payload = "a payload that repeats, a payload that repeats".repeat(100).getBytes(StandardCharsets.UTF_8);
+        byte[] compressed = DeflateCompressor.INSTANCE.compress(payload);
+        assertTrue(compressed.length < payload.length);
+        ByteBuffer restored = DeflateCompressor.INSTANCE.decompress(ByteBuffer.wrap(compressed));
+        byte[] bytes = new byte[restored.remaining()];
+        restored.get(bytes);
+        assertArrayEquals(payload, bytes);
+    }
+
+    @Test
+    void frameAboveTheThresholdIsCompressed() {
+        String text = "x".repeat(THRESHOLD * 4);
+        ByteBuffer frame = Frames.encode(new JSONObject().put("text", text), FORMAT, null, THRESHOLD);
+        int length = frame.getInt();
+        int flags = frame.get();
+        assertEquals(Frames.FLAG_COMPRESSED, flags & Frames.FLAG_COMPRESSED);
+        assertTrue(length < THRESHOLD, "the repeated text shrinks");
+        ByteBuffer payload = DeflateCompressor.INSTANCE.decompress(frame);
+        assertEquals(text, JsonCodec.INSTANCE.decode(payload).getString("text"));
+    }
+
+    @Test
+    void frameBelowTheThresholdIsSentAsIs() {
+        String text = "x".repeat(THRESHOLD / 4);
+        ByteBuffer frame = Frames.encode(new JSONObject().put("text", text), FORMAT, null, THRESHOLD);
+        frame.getInt();
+        int flags = frame.get();
+        assertEquals(0, flags & Frames.FLAG_COMPRESSED);
+        assertEquals(text, JsonCodec.INSTANCE.decode(frame).getString("text"));
+    }
+
+    @Test
+    void truncatedPayloadFails() {
+        byte[] compressed = DeflateCompressor.INSTANCE.compress("y".repeat(THRESHOLD).getBytes(StandardCharsets.UTF_8));
+        byte[] truncated = Arrays.copyOf(compressed, compressed.length / 2);
+        assertThrows(RuntimeException.class, () -> DeflateCompressor.INSTANCE.decompress(ByteBuffer.wrap(truncated)));
+    }
+}
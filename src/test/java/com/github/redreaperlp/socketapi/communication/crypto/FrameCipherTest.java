@@ -0,0 +1,90 @@
+package com.github.redreaperlp.socketapi.communication.crypto;
+
+import com.github.redreaperlp.socketapi.LoopbackServer;
+import com.github.redreaperlp.socketapi.communication.request.requests.RequestPing;
+import com.github.redreaperlp.socketapi.ns.client.SocketClient;
+import com.github.redreaperlp.socketapi.ns.server.SocketServer;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class FrameCipherTest {
+    private static final byte[] KEY = new byte[32];
+
+    @Test
+    void sealedFrameOpens() {
+        FrameCipher cipher = new FrameCipher(KEY);
+        byte[] payload = "{\"id\":1}".getBytes(StandardCharsets.UTF_8);
+        ByteBuffer opened = cipher.open(ByteBuffer.wrap(cipher.seal(payload)));
+        byte[] bytes = new byte[opened.remaining()];
+        opened.get(bytes);
+        assertArrayEquals(payload, bytes);
+    }
+
+    @Test
+    void tamperedFrameFailsToOpen() {
+        FrameCipher cipher = new FrameCipher(KEY);
+        byte[] sealed = cipher.seal("{\"id\":1}".getBytes(StandardCharsets.UTF_8));
+        sealed[FrameCipher.NONCE_SIZE] ^= 1;
+        assertThrows(RuntimeException.class, () -> cipher.open(ByteBuffer.wrap(sealed)));
+    }
+
+    @Test
+    void frameWithAnotherKeyFailsToOpen() {
+        byte[] otherKey = new byte[32];
+        otherKey[0] = 1;
+        byte[] sealed = new FrameCipher(otherKey).seal("{\"id\":1}".getBytes(StandardCharsets.UTF_8));
+        assertThrows(RuntimeException.class, () -> new FrameCipher(KEY).open(ByteBuffer.wrap(sealed)));
+    }
+
+    @Test
+    void undecryptableFrameClosesOnlyItsConnectionOnAnEventLoop() throws IOException {
+        undecryptableFrameClosesOnlyItsConnection(server -> server.useEventLoops(1));
+    }
+
+    @Test
+    void undecryptableFrameClosesOnlyItsConnectionWithAThreadPerConnection() throws IOException {
+        undecryptableFrameClosesOnlyItsConnection(server -> {
+        });
+    }
+
+    private void undecryptableFrameClosesOnlyItsConnection(Consumer<SocketServer> setup) throws IOException {
+        try (LoopbackServer loopback = new LoopbackServer(server -> {
+            server.useEncryption("secret");
+            setup.accept(server);
+        })) {
+            SocketClient registered = loopback.connect(client -> client.useEncryption("secret"));
+
+            try (Socket rogue = new Socket("localhost", loopback.getPort())) {
+                rogue.setSoTimeout(5000);
+                String line = Base64.getEncoder().encodeToString(new byte[32]) + "\n";
+                rogue.getOutputStream().write(line.getBytes(StandardCharsets.UTF_8));
+                rogue.getOutputStream().flush();
+                assertEquals(-1, readUntilClosed(rogue.getInputStream()), "the server closes the rogue connection");
+            }
+
+            RequestPing ping = registered.getRequest(RequestPing.class);
+            ping.complete();
+            assertEquals(200, ping.failed(), "the registered connection keeps working");
+        }
+    }
+
+    private static int readUntilClosed(InputStream in) {
+        try {
+            return in.read();
+        } catch (IOException e) {
+            // a reset also means the server closed the connection
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.github.redreaperlp.socketapi.communication.dispatch;
+
+import com.github.redreaperlp.socketapi.LoopbackServer;
+import com.github.redreaperlp.socketapi.communication.RequestManager;
+import com.github.redreaperlp.socketapi.communication.queue.LogicalChannel;
+import com.github.redreaperlp.socketapi.communication.queue.OutboundQueue;
+import com.github.redreaperlp.socketapi.communication.request.requests.RequestPing;
+import com.github.redreaperlp.socketapi.communication.request.special.RequestPromising;
+import com.github.redreaperlp.socketapi.ns.client.SocketClient;
+import com.github.redreaperlp.socketapi.ns.server.SocketServer;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class DispatcherTest {
+
+    static {
+        RequestManager.registerRequest(RequestFailing.name, RequestFailing.class);
+    }
+
+    @Test
+    void failingHandlerIsAnsweredWith500Inline() {
+        failingHandlerIsAnsweredWith500(server -> {
+        });
+    }
+
+    @Test
+    void failingHandlerIsAnsweredWith500OnAPool() {
+        failingHandlerIsAnsweredWith500(server -> server.useDispatcher(DispatchMode.POOLED, 2, 100, RejectionPolicy.REJECT));
+    }
+
+    @Test
+    void failingHandlerIsAnsweredWith500InOrder() {
+        failingHandlerIsAnsweredWith500(server -> server.useDispatcher(DispatchMode.ORDERED, 2, 100, RejectionPolicy.REJECT));
+    }
+
+    private void failingHandlerIsAnsweredWith500(Consumer<SocketServer> setup) {
+        try (LoopbackServer loopback = new LoopbackServer(server -> {
+            setup.accept(server);
+            server.registerPromisingHandler(RequestFailing.class, (req, data) -> {
+                throw new IllegalStateException("handler failed");
+            });
+        })) {
+            SocketClient client = loopback.connect(c -> {
+            });
+            RequestFailing failing = client.getRequest(RequestFailing.class);
+            failing.complete();
+            assertEquals(200, failing.failed(), "the response arrived");
+            assertEquals(500, failing.getResponse().getStatus());
+
+            RequestPing ping = client.getRequest(RequestPing.class);
+            ping.complete();
+            assertEquals(200, ping.failed(), "the connection keeps working");
+        }
+    }
+
+    @Test
+    void rejectedOrderedTaskRunsOnceOnTheCaller() {
+        Dispatcher dispatcher = new Dispatcher(DispatchMode.ORDERED, 1, 10, RejectionPolicy.CALLER_RUNS, Thread::new);
+        dispatcher.shutdown();
+        LogicalChannel channel = new OutboundQueue().getDefaultChannel();
+        AtomicInteger runs = new AtomicInteger();
+        dispatcher.dispatch(channel, runs::incrementAndGet, () -> {
+        });
+        assertEquals(1, runs.get());
+        assertEquals(0, channel.getSerialExecutor().size(), "the rejected task is not left queued");
+    }
+
+    @Test
+    void rejectedTaskIsNotQueued() {
+        SerialExecutor executor = new SerialExecutor();
+        Executor rejecting = task -> {
+            throw new RejectedExecutionException();
+        };
+        AtomicInteger runs = new AtomicInteger();
+        assertThrows(RejectedExecutionException.class, () -> executor.execute(runs::incrementAndGet, rejecting, 10));
+        assertEquals(0, executor.size());
+
+        // a pool that accepts again only runs the new task
+        executor.execute(runs::incrementAndGet, Runnable::run, 10);
+        assertEquals(1, runs.get());
+        assertEquals(0, executor.size());
+    }
+
+    public static class RequestFailing extends RequestPromising {
+        public static final String name = "failing";
+
+        public RequestFailing(long id) {
+            super(id);
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+    }
+}
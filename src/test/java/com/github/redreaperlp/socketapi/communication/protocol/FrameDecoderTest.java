@@ -0,0 +1,159 @@
+package com.github.redreaperlp.socketapi.communication.protocol;
+
+import com.github.redreaperlp.socketapi.LoopbackServer;
+import com.github.redreaperlp.socketapi.communication.Connection;
+import com.github.redreaperlp.socketapi.communication.codec.JsonCodec;
+import com.github.redreaperlp.socketapi.ns.NetInstance;
+import com.github.redreaperlp.socketapi.ns.server.SocketServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class FrameDecoderTest {
+    private static final WireFormat V2 = new WireFormat(Frames.V2, JsonCodec.INSTANCE);
+
+    private SocketServer server;
+    private SocketChannel socket;
+    private RecordingConnection con;
+    private final FrameDecoder decoder = new FrameDecoder();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new SocketServer(LoopbackServer.freePort());
+        // a non-blocking channel that is never connected, the connection does not touch it
+        socket = SocketChannel.open();
+        socket.configureBlocking(false);
+        con = new RecordingConnection(socket.socket(), server);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        socket.close();
+        server.stop();
+    }
+
+    @Test
+    void linesAreSplitAtLineBreaks() throws IOException {
+        feed("first\nsec".getBytes(StandardCharsets.UTF_8));
+        assertEquals(List.of("first"), con.texts());
+        feed("ond\r\n\nthird\n".getBytes(StandardCharsets.UTF_8));
+        assertEquals(List.of("first", "second", "third"), con.texts(), "carriage returns and empty lines are skipped");
+    }
+
+    @Test
+    void framesArriveWithTheirFlags() throws IOException {
+        con.setReadFormat(V2);
+        feed(bytes(Frames.encode(Frames.V2, Frames.FLAG_COMPRESSED, "one".getBytes(StandardCharsets.UTF_8))),
+                bytes(Frames.encode(Frames.V2, 0, "two".getBytes(StandardCharsets.UTF_8))));
+        assertEquals(List.of("one", "two"), con.texts());
+        assertEquals(List.of(Frames.FLAG_COMPRESSED, 0), con.flags);
+    }
+
+    @Test
+    void frameSplitIntoSingleBytesIsReassembled() throws IOException {
+        con.setReadFormat(V2);
+        byte[] frame = bytes(Frames.encode(Frames.V2, 0, "{\"type\":\"ping\"}".getBytes(StandardCharsets.UTF_8)));
+        for (int i = 0; i < frame.length; i++) {
+            assertEquals(0, con.payloads.size(), "nothing is received before the frame is complete");
+            feed(new byte[]{frame[i]});
+        }
+        assertEquals(List.of("{\"type\":\"ping\"}"), con.texts());
+    }
+
+    @Test
+    void frameLargerThanTheBufferGrowsIt() throws IOException {
+        con.setReadFormat(V2);
+        byte[] payload = new byte[100_000];
+        Arrays.fill(payload, (byte) 'x');
+        byte[] frame = bytes(Frames.encode(Frames.V2, 0, payload));
+        for (int offset = 0; offset < frame.length; offset += 4096) {
+            feed(Arrays.copyOfRange(frame, offset, Math.min(frame.length, offset + 4096)));
+        }
+        assertEquals(1, con.payloads.size());
+        assertArrayEquals(payload, con.payloads.get(0));
+    }
+
+    @Test
+    void emptyFrameFails() {
+        con.setReadFormat(V2);
+        byte[] frame = ByteBuffer.allocate(Frames.HEADER_SIZE).putInt(0).put((byte) 0).array();
+        assertThrows(IOException.class, () -> feed(frame));
+    }
+
+    @Test
+    void frameAboveTheMaximumFails() {
+        con.setReadFormat(V2);
+        byte[] frame = ByteBuffer.allocate(Frames.HEADER_SIZE).putInt(Frames.MAX_FRAME_SIZE + 1).put((byte) 0).array();
+        assertThrows(IOException.class, () -> feed(frame));
+    }
+
+    @Test
+    void protocolCanChangeBetweenTwoFrames() throws IOException {
+        con.upgradeOn = "upgrade";
+        byte[] line = "upgrade\n".getBytes(StandardCharsets.UTF_8);
+        byte[] frame = bytes(Frames.encode(Frames.V2, 0, "framed".getBytes(StandardCharsets.UTF_8)));
+        byte[] both = Arrays.copyOf(line, line.length + frame.length);
+        System.arraycopy(frame, 0, both, line.length, frame.length);
+        feed(both);
+        assertEquals(List.of("upgrade", "framed"), con.texts());
+    }
+
+    private void feed(byte[]... chunks) throws IOException {
+        for (byte[] chunk : chunks) {
+            decoder.readFrom(new ByteArrayInputStream(chunk));
+            decoder.decode(() -> con);
+        }
+    }
+
+    private static byte[] bytes(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    /**
+     * Keeps the received payloads instead of resolving them
+     */
+    private static class RecordingConnection extends Connection {
+        final List<byte[]> payloads = new ArrayList<>();
+        final List<Integer> flags = new ArrayList<>();
+        String upgradeOn;
+
+        RecordingConnection(Socket socket, NetInstance netInstance) {
+            super(socket, netInstance);
+        }
+
+        @Override
+        protected void registerHandlers() {
+        }
+
+        @Override
+        public void receive(int flags, ByteBuffer payload) {
+            byte[] bytes = new byte[payload.remaining()];
+            payload.get(bytes);
+            payloads.add(bytes);
+            this.flags.add(flags);
+            if (new String(bytes, StandardCharsets.UTF_8).equals(upgradeOn)) setReadFormat(V2);
+        }
+
+        List<String> texts() {
+            List<String> texts = new ArrayList<>();
+            for (byte[] payload : payloads) texts.add(new String(payload, StandardCharsets.UTF_8));
+            return texts;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.github.redreaperlp.socketapi.communication.queue;
+
+import com.github.redreaperlp.socketapi.LoopbackServer;
+import com.github.redreaperlp.socketapi.communication.Connection;
+import com.github.redreaperlp.socketapi.communication.request.Request;
+import com.github.redreaperlp.socketapi.communication.request.requests.RequestPing;
+import com.github.redreaperlp.socketapi.communication.request.special.RequestVoiding;
+import org.json.JSONObject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The connection is never started, so the queue only shrinks when a test polls it
+ */
+class FlowControlTest {
+    private LoopbackServer.UnstartedConnection fixture;
+    private Connection con;
+
+    @BeforeEach
+    void setUp() {
+        // the pings are never answered, they must not time out during a test
+        fixture = LoopbackServer.unstartedConnection(server -> server.setRequestTimeout(60_000));
+        con = fixture.getConnection();
+    }
+
+    @AfterEach
+    void tearDown() {
+        fixture.close();
+    }
+
+    @Test
+    void highWatermarkMakesTheConnectionUnwritableUntilTheLowOne() {
+        con.setFlowControl(new FlowControl(1, 3, Long.MAX_VALUE, Long.MAX_VALUE, OverflowPolicy.FAIL));
+        List<Boolean> changes = new CopyOnWriteArrayList<>();
+        con.addWritabilityListener((c, writable) -> changes.add(writable));
+        for (int i = 0; i < 3; i++) con.queue(ping());
+        assertFalse(con.isWritable());
+        con.pollRequest();
+        assertFalse(con.isWritable(), "still above the low watermark");
+        con.pollRequest();
+        assertTrue(con.isWritable());
+        assertEquals(List.of(false, true), changes);
+    }
+
+    @Test
+    void failRejectsPromisingRequestsWith429() {
+        con.setFlowControl(new FlowControl(1, 2, Long.MAX_VALUE, Long.MAX_VALUE, OverflowPolicy.FAIL));
+        con.queue(ping());
+        con.queue(ping());
+        RequestPing rejected = ping();
+        con.queue(rejected);
+        assertEquals(FlowControl.STATUS_OVERFLOW, rejected.failed());
+        assertTrue(rejected.getFuture().isDone());
+        assertEquals(2, con.getQueuedRequests());
+    }
+
+    @Test
+    void dropDiscardsOnlyRequestsWithoutResponse() {
+        con.setFlowControl(new FlowControl(1, 2, Long.MAX_VALUE, Long.MAX_VALUE, OverflowPolicy.DROP));
+        con.queue(ping());
+        con.queue(ping());
+        con.queue(event());
+        assertEquals(2, con.getQueuedRequests(), "the event is dropped");
+        RequestPing ping = ping();
+        con.queue(ping);
+        assertEquals(3, con.getQueuedRequests(), "requests with a response are still queued");
+        assertFalse(ping.getFuture().isDone());
+    }
+
+    @Test
+    void blockWaitsUntilTheConnectionIsWritable() throws InterruptedException {
+        con.setFlowControl(new FlowControl(0, 1, Long.MAX_VALUE, Long.MAX_VALUE, OverflowPolicy.BLOCK));
+        con.queue(ping());
+        CountDownLatch queued = new CountDownLatch(1);
+        Thread producer = new Thread(() -> {
+            con.queue(ping());
+            queued.countDown();
+        });
+        producer.start();
+        assertFalse(queued.await(200, TimeUnit.MILLISECONDS), "the producer waits while the connection is full");
+        con.pollRequest();
+        assertTrue(queued.await(5, TimeUnit.SECONDS), "the producer continues once the queue drained");
+        assertEquals(1, con.getQueuedRequests());
+        producer.join();
+    }
+
+    @Test
+    void responsesAreQueuedWhileUnwritable() {
+        con.setFlowControl(new FlowControl(1, 1, Long.MAX_VALUE, Long.MAX_VALUE, OverflowPolicy.FAIL));
+        con.queue(ping());
+        assertFalse(con.isWritable());
+        RequestPing answered = ping();
+        answered.setResponse(new JSONObject(), 200);
+        con.queue(answered.getResponse());
+        assertEquals(2, con.getQueuedRequests());
+    }
+
+    private RequestPing ping() {
+        return con.getRequestManager().getRequest(RequestPing.class);
+    }
+
+    private static Request event() {
+        return new RequestVoiding() {
+            @Override
+            public String getName() {
+                return "event";
+            }
+        };
+    }
+}
@@ -0,0 +1,86 @@
+package com.github.redreaperlp.socketapi.communication.timer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HashedWheelTimerTest {
+    // 8 buckets of 10ms, so one rotation takes 80ms
+    private final HashedWheelTimer timer = new HashedWheelTimer(Thread::new, 10, TimeUnit.MILLISECONDS, 8);
+
+    @AfterEach
+    void tearDown() {
+        timer.stop();
+    }
+
+    @Test
+    void taskRunsAfterItsDelay() throws InterruptedException {
+        CountDownLatch ran = new CountDownLatch(1);
+        AtomicLong ranAt = new AtomicLong();
+        long start = System.nanoTime();
+        Timeout timeout = timer.schedule(() -> {
+            ranAt.set(System.nanoTime());
+            ran.countDown();
+        }, 50, TimeUnit.MILLISECONDS);
+        assertTrue(ran.await(5, TimeUnit.SECONDS));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(ranAt.get() - start) >= 50, "the task did not run early");
+        assertTrue(timeout.isExpired());
+        assertFalse(timeout.cancel(), "a task that ran can not be cancelled");
+    }
+
+    @Test
+    void cancelledTaskNeverRuns() throws InterruptedException {
+        AtomicBoolean ran = new AtomicBoolean();
+        Timeout timeout = timer.schedule(() -> ran.set(true), 30, TimeUnit.MILLISECONDS);
+        assertTrue(timeout.cancel());
+        assertTrue(timeout.isCancelled());
+        assertFalse(timeout.cancel(), "only the first cancel counts");
+
+        CountDownLatch later = new CountDownLatch(1);
+        timer.schedule(later::countDown, 100, TimeUnit.MILLISECONDS);
+        assertTrue(later.await(5, TimeUnit.SECONDS));
+        assertFalse(ran.get());
+        assertFalse(timeout.isExpired());
+    }
+
+    @Test
+    void delayLongerThanOneRotationWaitsForItsRound() throws InterruptedException {
+        CountDownLatch ran = new CountDownLatch(1);
+        AtomicLong ranAt = new AtomicLong();
+        long start = System.nanoTime();
+        timer.schedule(() -> {
+            ranAt.set(System.nanoTime());
+            ran.countDown();
+        }, 250, TimeUnit.MILLISECONDS);
+        assertTrue(ran.await(5, TimeUnit.SECONDS));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(ranAt.get() - start) >= 250, "the task did not run in an earlier round");
+    }
+
+    @Test
+    void manyTasksAllRun() throws InterruptedException {
+        CountDownLatch ran = new CountDownLatch(10_000);
+        for (int i = 0; i < 10_000; i++) {
+            timer.schedule(ran::countDown, i % 200, TimeUnit.MILLISECONDS);
+        }
+        assertTrue(ran.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void stoppedTimerRejectsTasks() throws InterruptedException {
+        AtomicBoolean ran = new AtomicBoolean();
+        timer.schedule(() -> ran.set(true), 50, TimeUnit.MILLISECONDS);
+        timer.stop();
+        assertThrows(IllegalStateException.class, () -> timer.schedule(() -> {
+        }, 10, TimeUnit.MILLISECONDS));
+        Thread.sleep(150);
+        assertFalse(ran.get(), "pending tasks are dropped");
+    }
+}
@@ -0,0 +1,60 @@
+package com.github.redreaperlp.socketapi.communication.transport;
+
+import com.github.redreaperlp.socketapi.LoopbackServer;
+import com.github.redreaperlp.socketapi.communication.request.requests.RequestPing;
+import com.github.redreaperlp.socketapi.ns.client.SocketClient;
+import com.github.redreaperlp.socketapi.ns.server.SocketServer;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EventLoopTest {
+
+    @Test
+    void malformedFrameClosesOnlyItsConnectionOnAnEventLoop() throws IOException {
+        malformedFrameClosesOnlyItsConnection(server -> server.useEventLoops(1));
+    }
+
+    @Test
+    void malformedFrameClosesOnlyItsConnectionWithAThreadPerConnection() throws IOException {
+        malformedFrameClosesOnlyItsConnection(server -> {
+        });
+    }
+
+    private void malformedFrameClosesOnlyItsConnection(Consumer<SocketServer> setup) throws IOException {
+        try (LoopbackServer loopback = new LoopbackServer(setup)) {
+            SocketClient registered = loopback.connect(client -> {
+            });
+
+            try (Socket rogue = new Socket("localhost", loopback.getPort())) {
+                rogue.setSoTimeout(5000);
+                rogue.getOutputStream().write("this is not json\n".getBytes(StandardCharsets.UTF_8));
+                rogue.getOutputStream().flush();
+                assertEquals(-1, readUntilClosed(rogue.getInputStream()), "the server closes the rogue connection");
+            }
+
+            RequestPing ping = registered.getRequest(RequestPing.class);
+            ping.complete();
+            assertEquals(200, ping.failed(), "the registered connection keeps working");
+            SocketClient late = loopback.connect(client -> {
+            });
+            assertTrue(late.isConnected(), "new connections can still register");
+        }
+    }
+
+    private static int readUntilClosed(InputStream in) {
+        try {
+            return in.read();
+        } catch (IOException e) {
+            // a reset also means the server closed the connection
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.github.redreaperlp.socketapi.ns;
+
+import com.github.redreaperlp.socketapi.LoopbackServer;
+import com.github.redreaperlp.socketapi.communication.Connection;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadFactory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NetOptionsTest {
+
+    @Test
+    void connectionsUseTheKeepAliveAndTimeoutOfTheirInstance() {
+        try (LoopbackServer loopback = new LoopbackServer(server -> {
+            server.setPingInterval(250);
+            server.setMaxPingInterval(4000);
+            server.setRequestTimeout(1500);
+        })) {
+            loopback.connect(client -> {
+            });
+            Connection con = loopback.getServer().getConnectionRegistry().getAll().iterator().next();
+            assertEquals(250, con.getPingInterval());
+            assertEquals(4000, con.getMaxPingInterval());
+            assertEquals(1500, con.getRequestTimeout());
+        }
+    }
+
+    @Test
+    void requestTimeoutDefaultsToThreePingIntervals() {
+        try (LoopbackServer loopback = new LoopbackServer(server -> server.setPingInterval(200))) {
+            loopback.connect(client -> {
+            });
+            Connection con = loopback.getServer().getConnectionRegistry().getAll().iterator().next();
+            assertEquals(600, con.getRequestTimeout());
+        }
+    }
+
+    @Test
+    void everyThreadComesFromTheConfiguredFactory() {
+        List<Thread> serverThreads = new CopyOnWriteArrayList<>();
+        List<Thread> clientThreads = new CopyOnWriteArrayList<>();
+        try (LoopbackServer loopback = new LoopbackServer(server -> {
+            server.useEventLoops(1);
+            server.setThreadFactory(recording(serverThreads));
+        })) {
+            loopback.connect(client -> client.setThreadFactory(recording(clientThreads)));
+            assertTrue(names(serverThreads).containsAll(List.of("Acceptor", "Event Loop 0")), names(serverThreads).toString());
+            assertTrue(names(clientThreads).containsAll(List.of("ConnectionErrorThread", "Incoming Listener")), names(clientThreads).toString());
+        }
+    }
+
+    @Test
+    void invalidIntervalsAreRejected() {
+        NetOptions options = new NetOptions();
+        assertThrows(IllegalArgumentException.class, () -> options.setPingInterval(0));
+        assertThrows(IllegalArgumentException.class, () -> options.setMaxPingInterval(0));
+        assertThrows(IllegalArgumentException.class, () -> options.setRequestTimeout(-1));
+        options.shutdown();
+    }
+
+    private static ThreadFactory recording(List<Thread> threads) {
+        return task -> {
+            Thread thread = new Thread(task);
+            threads.add(thread);
+            return thread;
+        };
+    }
+
+    private static List<String> names(List<Thread> threads) {
+        return threads.stream().map(Thread::getName).toList();
+    }
+}
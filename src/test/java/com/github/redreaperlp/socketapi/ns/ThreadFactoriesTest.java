@@ -0,0 +1,48 @@
+package com.github.redreaperlp.socketapi.ns;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ThreadFactoriesTest {
+
+    @Test
+    void platformFactoryCreatesPlatformThreads() throws ReflectiveOperationException {
+        Thread thread = ThreadFactories.platform().newThread(() -> {
+        });
+        if (Runtime.version().feature() >= 21) assertFalse(isVirtual(thread));
+    }
+
+    @Test
+    void virtualFactoryCreatesVirtualThreads() throws ReflectiveOperationException, InterruptedException {
+        if (Runtime.version().feature() < 21) {
+            assertThrows(UnsupportedOperationException.class, ThreadFactories::virtual);
+            return;
+        }
+        ThreadFactory factory = ThreadFactories.virtual();
+        CountDownLatch ran = new CountDownLatch(1);
+        AtomicBoolean virtual = new AtomicBoolean();
+        Thread thread = factory.newThread(() -> {
+            try {
+                virtual.set(isVirtual(Thread.currentThread()));
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException(e);
+            }
+            ran.countDown();
+        });
+        thread.start();
+        assertTrue(ran.await(5, TimeUnit.SECONDS));
+        assertTrue(virtual.get());
+    }
+
+    private static boolean isVirtual(Thread thread) throws ReflectiveOperationException {
+        return (boolean) Thread.class.getMethod("isVirtual").invoke(thread);
+    }
+}